@@ -0,0 +1,20 @@
+#!/bin/sh
+# Отправляет синтетический апдейт в локально запущенного бота в режиме webhook.
+# Использование: ./scripts/send-test-update.sh "водка" [chat_id]
+TEXT=${1:-/start}
+CHAT_ID=${2:-1}
+URL=${WEBHOOK_LOCAL_URL:-http://localhost:8080/telegram/webhook}
+
+curl -s -o /dev/null -w "%{http_code}\n" -X POST "$URL" \
+  -H "Content-Type: application/json" \
+  -H "X-Telegram-Bot-Api-Secret-Token: ${TELEGRAM_WEBHOOK_SECRET}" \
+  -d "{
+    \"update_id\": $(date +%s),
+    \"message\": {
+      \"message_id\": 1,
+      \"date\": $(date +%s),
+      \"chat\": {\"id\": ${CHAT_ID}, \"type\": \"private\"},
+      \"from\": {\"id\": ${CHAT_ID}, \"is_bot\": false, \"first_name\": \"Test\"},
+      \"text\": \"${TEXT}\"
+    }
+  }"
@@ -1,14 +1,86 @@
 package io.prj3ct.telegramdemobot.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+/**
+ * Outbound HTTP: one pooled Apache HttpClient per destination, wrapped in RestTemplates built by Boot's
+ * builder so request latency is recorded as {@code http.client.requests}. Pool usage is published under
+ * {@code httpcomponents.httpclient.pool.*}, tagged with the destination.
+ */
 @Configuration
 public class AppConfig {
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public CloseableHttpClient cocktailDbHttpClient(HttpClientConfig config, MeterRegistry meterRegistry) {
+        return pooledClient("cocktaildb", config.getCocktailDb(), meterRegistry);
+    }
+
+    @Bean
+    public CloseableHttpClient translationHttpClient(HttpClientConfig config, MeterRegistry meterRegistry) {
+        return pooledClient("libretranslate", config.getTranslation(), meterRegistry);
+    }
+
+    @Bean
+    public CloseableHttpClient imageHttpClient(HttpClientConfig config, MeterRegistry meterRegistry) {
+        return pooledClient("images", config.getImages(), meterRegistry);
+    }
+
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder,
+                                     @Qualifier("cocktailDbHttpClient") CloseableHttpClient httpClient) {
+        return builder.requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient)).build();
+    }
+
+    @Bean
+    public RestTemplate imageRestTemplate(RestTemplateBuilder builder,
+                                          @Qualifier("imageHttpClient") CloseableHttpClient httpClient) {
+        return builder.requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient)).build();
+    }
+
+    @Bean
+    public RestTemplate translationRestTemplate(RestTemplateBuilder builder,
+                                                @Qualifier("translationHttpClient") CloseableHttpClient httpClient) {
+        return builder.requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient)).build();
+    }
+
+    private static CloseableHttpClient pooledClient(String name, HttpClientConfig.Destination destination,
+                                                    MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(destination.getMaxConnections())
+                .setMaxConnPerRoute(destination.getMaxConnections())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(destination.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(destination.getReadTimeout()))
+                        .setTimeToLive(TimeValue.of(destination.getTimeToLive()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, name).bindTo(meterRegistry);
+
+        // Сжатие ответов (gzip/deflate) в HttpClient включено по умолчанию
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setResponseTimeout(Timeout.of(destination.getReadTimeout()))
+                        .setConnectionKeepAlive(TimeValue.of(destination.getKeepAlive()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(destination.getKeepAlive()))
+                .build();
     }
 }
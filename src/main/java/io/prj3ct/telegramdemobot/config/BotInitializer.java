@@ -1,12 +1,16 @@
 package io.prj3ct.telegramdemobot.config;
 
 import io.prj3ct.telegramdemobot.service.TelegramBot;
+import io.prj3ct.telegramdemobot.service.TelegramWebhookReceiver;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.meta.TelegramBotsApi;
+import org.telegram.telegrambots.meta.api.methods.updates.SetWebhook;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 import org.telegram.telegrambots.updatesreceivers.DefaultBotSession;
 
@@ -14,15 +18,28 @@ import org.telegram.telegrambots.updatesreceivers.DefaultBotSession;
 @Component
 public class BotInitializer {
     private final TelegramBot bot;
+    private final ObjectProvider<TelegramWebhookReceiver> webhookReceiver;
+    private final WebhookConfig webhookConfig;
+    private final String mode;
 
     @Autowired
-    public BotInitializer(TelegramBot bot) {
+    public BotInitializer(TelegramBot bot,
+                          ObjectProvider<TelegramWebhookReceiver> webhookReceiver,
+                          WebhookConfig webhookConfig,
+                          @Value("${bot.mode:polling}") String mode) {
         this.bot = bot;
+        this.webhookReceiver = webhookReceiver;
+        this.webhookConfig = webhookConfig;
+        this.mode = mode;
     }
 
 
     @EventListener({ContextRefreshedEvent.class})
     public void init() throws TelegramApiException {
+        if ("webhook".equalsIgnoreCase(mode)) {
+            registerWebhook();
+            return;
+        }
         TelegramBotsApi telegramBotsApi = new TelegramBotsApi(DefaultBotSession.class);
         try {
            telegramBotsApi.registerBot(bot);
@@ -30,4 +47,28 @@ public class BotInitializer {
             log.error("Error occurred while registering bot", e);
         }
     }
+
+    private void registerWebhook() {
+        TelegramWebhookReceiver receiver = webhookReceiver.getIfAvailable();
+        if (receiver == null || webhookConfig.getUrl() == null || webhookConfig.getUrl().isBlank()) {
+            log.error("Webhook mode is enabled, but bot.webhook.url is not configured");
+            return;
+        }
+        if (webhookConfig.getSecretToken() == null || webhookConfig.getSecretToken().isBlank()) {
+            log.error("Webhook mode is enabled, but bot.webhook.secret-token is not configured");
+            return;
+        }
+        SetWebhook setWebhook = SetWebhook.builder()
+                .url(webhookConfig.getUrl() + webhookConfig.getPath())
+                .secretToken(webhookConfig.getSecretToken())
+                .maxConnections(webhookConfig.getMaxConnections())
+                .dropPendingUpdates(false)
+                .build();
+        try {
+            receiver.setWebhook(setWebhook);
+            log.info("Webhook registered at {}", setWebhook.getUrl());
+        } catch (TelegramApiException e) {
+            log.error("Error occurred while registering webhook", e);
+        }
+    }
 }
@@ -0,0 +1,43 @@
+package io.prj3ct.telegramdemobot.config;
+
+import io.prj3ct.telegramdemobot.model.CocktailCache;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "cache.freshness")
+@Getter
+@Setter
+public class CacheFreshnessConfig {
+
+    private Policy ingredientSearch = new Policy(Duration.ofDays(1), Duration.ofDays(30));
+
+    private Policy cocktailDetails = new Policy(Duration.ofDays(7), Duration.ofDays(90));
+
+    private Policy ingredientsList = new Policy(Duration.ofDays(1), Duration.ofDays(30));
+
+    public Policy forType(CocktailCache.CacheType type) {
+        return switch (type) {
+            case INGREDIENT_SEARCH -> ingredientSearch;
+            case COCKTAIL_DETAILS -> cocktailDetails;
+            case INGREDIENTS_LIST -> ingredientsList;
+        };
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Policy {
+        // Сколько запись отдаётся без фонового обновления
+        private Duration freshFor;
+        // Через сколько после последней записи документ удаляет TTL-индекс Mongo
+        private Duration expireAfter;
+    }
+}
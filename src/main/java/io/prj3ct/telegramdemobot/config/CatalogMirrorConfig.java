@@ -0,0 +1,27 @@
+package io.prj3ct.telegramdemobot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "cocktaildb.mirror")
+@Getter
+@Setter
+public class CatalogMirrorConfig {
+
+    // Включает локальное зеркало каталога; запросы к CocktailDB тогда обслуживаются из снапшота
+    private boolean enabled = false;
+
+    private Path snapshotPath = Path.of("data/cocktaildb-catalog.bin");
+
+    // Снапшот моложе этого срока при старте не пересобирается
+    private Duration syncInterval = Duration.ofDays(1);
+
+    // Пауза между запросами к CocktailDB во время синхронизации
+    private Duration requestDelay = Duration.ofMillis(200);
+}
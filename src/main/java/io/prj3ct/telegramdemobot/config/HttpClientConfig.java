@@ -0,0 +1,47 @@
+package io.prj3ct.telegramdemobot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "http.client")
+@Getter
+@Setter
+public class HttpClientConfig {
+
+    // У каждого внешнего сервиса свой пул, чтобы медленный хост картинок не занимал соединения CocktailDB
+    private Destination cocktailDb = new Destination(16, Duration.ofSeconds(2), Duration.ofSeconds(10));
+    private Destination translation = new Destination(8, Duration.ofSeconds(2), Duration.ofSeconds(10));
+    private Destination images = new Destination(16, Duration.ofSeconds(2), Duration.ofSeconds(5));
+
+    // Потоки I/O-реактора неблокирующего клиента CocktailDB; ожидающие ответа запросы потоков не занимают
+    private int asyncIoThreads = 2;
+
+    @Getter
+    @Setter
+    public static class Destination {
+
+        private int maxConnections;
+        private Duration connectTimeout;
+        private Duration readTimeout;
+
+        // Сколько простаивающее соединение держится открытым, если сервер не прислал Keep-Alive сам
+        private Duration keepAlive = Duration.ofSeconds(30);
+
+        // Предельный возраст соединения, чтобы пул не держался за старые адреса после смены DNS
+        private Duration timeToLive = Duration.ofMinutes(5);
+
+        public Destination() {
+        }
+
+        public Destination(int maxConnections, Duration connectTimeout, Duration readTimeout) {
+            this.maxConnections = maxConnections;
+            this.connectTimeout = connectTimeout;
+            this.readTimeout = readTimeout;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package io.prj3ct.telegramdemobot.config;
+
+import io.prj3ct.telegramdemobot.model.CocktailCache;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "cache.l1")
+@Getter
+@Setter
+public class L1CacheConfig {
+
+    private Tier ingredientSearch = new Tier(5_000, Duration.ofMinutes(30));
+
+    private Tier cocktailDetails = new Tier(2_000, Duration.ofHours(6));
+
+    private Tier ingredientsList = new Tier(4, Duration.ofHours(6));
+
+    public Tier forType(CocktailCache.CacheType type) {
+        return switch (type) {
+            case INGREDIENT_SEARCH -> ingredientSearch;
+            case COCKTAIL_DETAILS -> cocktailDetails;
+            case INGREDIENTS_LIST -> ingredientsList;
+        };
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Tier {
+        private long maxSize;
+        private Duration ttl;
+    }
+}
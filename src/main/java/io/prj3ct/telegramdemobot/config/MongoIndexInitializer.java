@@ -0,0 +1,129 @@
+package io.prj3ct.telegramdemobot.config;
+
+import io.prj3ct.telegramdemobot.model.CocktailCache;
+import io.prj3ct.telegramdemobot.service.ImageStore;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Component
+public class MongoIndexInitializer {
+
+    public static final String REQUEST_KEY_TYPE_INDEX = "requestKey_type_unique";
+    public static final String EXPIRES_AT_TTL_INDEX = "expiresAt_ttl";
+    public static final String IMAGE_SOURCE_URLS_INDEX = "metadata_sourceUrls";
+    public static final String IMAGE_FILENAME_INDEX = "filename_unique";
+    private static final String IMAGE_FILES_COLLECTION = "fs.files";
+    private static final String IMAGE_CHUNKS_COLLECTION = "fs.chunks";
+
+    private final MongoTemplate mongoTemplate;
+
+    public MongoIndexInitializer(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        Index requestKeyAndType = new Index()
+                .on("requestKey", Sort.Direction.ASC)
+                .on("type", Sort.Direction.ASC)
+                .unique()
+                .named(REQUEST_KEY_TYPE_INDEX);
+        try {
+            createRequestKeyIndex(requestKeyAndType);
+            // Каждый документ хранит свой срок в expiresAt, поэтому сам индекс удаляет сразу по наступлении
+            mongoTemplate.indexOps(CocktailCache.class).createIndex(new Index()
+                    .on("expiresAt", Sort.Direction.ASC)
+                    .expire(Duration.ZERO)
+                    .named(EXPIRES_AT_TTL_INDEX));
+            log.info("Index {} on cocktail_cache is in place", EXPIRES_AT_TTL_INDEX);
+            // Картинки в GridFS ищутся по исходному URL
+            mongoTemplate.indexOps(IMAGE_FILES_COLLECTION).createIndex(new Index()
+                    .on("metadata." + ImageStore.SOURCE_URLS, Sort.Direction.ASC)
+                    .named(IMAGE_SOURCE_URLS_INDEX));
+            createImageFilenameIndex();
+        } catch (Exception e) {
+            log.error("Failed to create indexes for cocktail_cache", e);
+        }
+    }
+
+    private void createRequestKeyIndex(Index index) {
+        try {
+            mongoTemplate.indexOps(CocktailCache.class).createIndex(index);
+        } catch (DuplicateKeyException e) {
+            // Старые параллельные записи могли оставить дубликаты, без их удаления уникальный индекс не построить
+            log.warn("cocktail_cache contains duplicate (requestKey, type) documents, removing them");
+            removeDuplicates();
+            mongoTemplate.indexOps(CocktailCache.class).createIndex(index);
+        }
+        log.info("Index {} on cocktail_cache is in place", REQUEST_KEY_TYPE_INDEX);
+    }
+
+    // Имя файла - хеш содержимого; уникальный индекс не даёт двум параллельным записям сохранить одну картинку дважды
+    private void createImageFilenameIndex() {
+        Index filename = new Index()
+                .on("filename", Sort.Direction.ASC)
+                .unique()
+                .named(IMAGE_FILENAME_INDEX);
+        try {
+            mongoTemplate.indexOps(IMAGE_FILES_COLLECTION).createIndex(filename);
+        } catch (DuplicateKeyException e) {
+            log.warn("GridFS already holds duplicate images, removing them");
+            removeDuplicateImages();
+            mongoTemplate.indexOps(IMAGE_FILES_COLLECTION).createIndex(filename);
+        }
+        log.info("Index {} on {} is in place", IMAGE_FILENAME_INDEX, IMAGE_FILES_COLLECTION);
+    }
+
+    private void removeDuplicateImages() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.group("filename").push("_id").as("ids").push("metadata." + ImageStore.SOURCE_URLS).as("urls")
+                        .count().as("count"),
+                Aggregation.match(Criteria.where("count").gt(1)));
+        List<Document> groups = mongoTemplate.aggregate(aggregation, IMAGE_FILES_COLLECTION, Document.class).getMappedResults();
+        for (Document group : groups) {
+            List<?> ids = group.getList("ids", Object.class);
+            List<?> extra = ids.subList(1, ids.size());
+            // URL дубликатов переносятся на оставшийся файл
+            List<Object> urls = new ArrayList<>();
+            for (Object sourceUrls : group.getList("urls", Object.class)) {
+                if (sourceUrls instanceof List<?> list) {
+                    urls.addAll(list);
+                }
+            }
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(ids.get(0))),
+                    new Update().addToSet("metadata." + ImageStore.SOURCE_URLS).each(urls.toArray()), IMAGE_FILES_COLLECTION);
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(extra)), IMAGE_FILES_COLLECTION);
+            mongoTemplate.remove(Query.query(Criteria.where("files_id").in(extra)), IMAGE_CHUNKS_COLLECTION);
+        }
+        log.info("Removed duplicates for {} images", groups.size());
+    }
+
+    private void removeDuplicates() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.group("requestKey", "type").push("_id").as("ids").count().as("count"),
+                Aggregation.match(Criteria.where("count").gt(1)));
+        List<Document> groups = mongoTemplate.aggregate(aggregation, CocktailCache.class, Document.class).getMappedResults();
+        for (Document group : groups) {
+            List<?> ids = group.getList("ids", Object.class);
+            List<?> extra = ids.subList(1, ids.size());
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(extra)), CocktailCache.class);
+        }
+        log.info("Removed duplicates for {} cache keys", groups.size());
+    }
+}
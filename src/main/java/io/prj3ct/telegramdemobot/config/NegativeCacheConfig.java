@@ -0,0 +1,23 @@
+package io.prj3ct.telegramdemobot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "cache.negative")
+@Getter
+@Setter
+public class NegativeCacheConfig {
+
+    private long maxSize = 10_000;
+
+    // Запрос, на который CocktailDB ничего не нашёл
+    private Duration emptyTtl = Duration.ofMinutes(10);
+
+    // Запрос, упавший с ошибкой: держим недолго, чтобы не прятать восстановившийся API
+    private Duration failureTtl = Duration.ofSeconds(30);
+}
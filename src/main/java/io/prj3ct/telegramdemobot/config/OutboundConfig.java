@@ -0,0 +1,27 @@
+package io.prj3ct.telegramdemobot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "bot.outbound")
+@Getter
+@Setter
+public class OutboundConfig {
+
+    // Лимиты Telegram: около 30 сообщений в секунду на бота и 1 сообщение в секунду в один чат
+    private double globalPerSecond = 30;
+
+    private double perChatPerSecond = 1;
+
+    // Без запаса: три сообщения подряд в один чат уже ловят 429, так что больше одного сразу не отправляем
+    private int perChatBurst = 1;
+
+    // Сколько раз повторять отправку после ответа 429
+    private int maxRetries = 3;
+
+    // Потоки, которыми библиотека выполняет executeAsync
+    private int senderThreads = 8;
+}
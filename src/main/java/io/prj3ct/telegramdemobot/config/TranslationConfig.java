@@ -7,6 +7,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 @Data
 public class TranslationConfig {
@@ -19,6 +21,21 @@ public class TranslationConfig {
     @Value("${translation.enabled:true}")
     private boolean enabled;
 
+    // Сколько строк отправлять в LibreTranslate одним запросом
+    @Value("${translation.batch.max-items:50}")
+    private int batchMaxItems;
+
+    // Ограничение суммарной длины строк в одном запросе
+    @Value("${translation.batch.max-chars:4000}")
+    private int batchMaxChars;
+
+    // Сколько ошибок подряд размыкают цепь, и как долго после этого запросы в LibreTranslate не отправляются
+    @Value("${translation.circuit.failure-threshold:5}")
+    private int circuitFailureThreshold;
+
+    @Value("${translation.circuit.open-duration:30s}")
+    private Duration circuitOpenDuration;
+
     @PostConstruct
     public void logUrl() {
         logger.info("--- LibreTranslate URL in use: {} ---", url);
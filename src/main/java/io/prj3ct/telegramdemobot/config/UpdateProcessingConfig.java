@@ -0,0 +1,19 @@
+package io.prj3ct.telegramdemobot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "bot.updates")
+@Getter
+@Setter
+public class UpdateProcessingConfig {
+
+    // Максимальное число одновременно обрабатываемых чатов
+    private int workerThreads = 16;
+
+    // Сколько необработанных апдейтов может накопиться в одном чате, прежде чем новые будут отброшены
+    private int maxPendingPerChat = 50;
+}
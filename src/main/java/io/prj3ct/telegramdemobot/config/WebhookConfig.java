@@ -0,0 +1,23 @@
+package io.prj3ct.telegramdemobot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "bot.webhook")
+@Getter
+@Setter
+public class WebhookConfig {
+
+    // Публичный адрес приложения, на который Telegram будет присылать апдейты (без пути)
+    private String url;
+
+    private String path = "/telegram/webhook";
+
+    // Значение заголовка X-Telegram-Bot-Api-Secret-Token, которое Telegram передаёт с каждым апдейтом
+    private String secretToken;
+
+    private int maxConnections = 40;
+}
@@ -0,0 +1,52 @@
+package io.prj3ct.telegramdemobot.controller;
+
+import io.prj3ct.telegramdemobot.config.WebhookConfig;
+import io.prj3ct.telegramdemobot.service.TelegramWebhookReceiver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+@Slf4j
+@RestController
+@ConditionalOnProperty(name = "bot.mode", havingValue = "webhook")
+public class WebhookController {
+
+    private static final String SECRET_TOKEN_HEADER = "X-Telegram-Bot-Api-Secret-Token";
+
+    private final TelegramWebhookReceiver webhookReceiver;
+    private final byte[] secretToken;
+
+    public WebhookController(TelegramWebhookReceiver webhookReceiver, WebhookConfig webhookConfig) {
+        this.webhookReceiver = webhookReceiver;
+        String secret = webhookConfig.getSecretToken();
+        // Без секрета любой, кто узнал адрес, мог бы слать боту поддельные апдейты, поэтому не стартуем вовсе
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("bot.webhook.secret-token must be set when bot.mode=webhook");
+        }
+        this.secretToken = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @PostMapping("${bot.webhook.path:/telegram/webhook}")
+    public ResponseEntity<Void> onUpdate(@RequestHeader(value = SECRET_TOKEN_HEADER, required = false) String token,
+                                         @RequestBody Update update) {
+        if (!isAuthorized(token)) {
+            log.warn("Rejected webhook update {}: secret token mismatch", update.getUpdateId());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        webhookReceiver.onWebhookUpdateReceived(update);
+        return ResponseEntity.ok().build();
+    }
+
+    private boolean isAuthorized(String token) {
+        return token != null && MessageDigest.isEqual(secretToken, token.getBytes(StandardCharsets.UTF_8));
+    }
+}
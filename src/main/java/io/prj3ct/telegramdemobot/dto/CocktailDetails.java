@@ -8,7 +8,10 @@ import java.util.List;
 @Data
 @EqualsAndHashCode(callSuper = true)
 public class CocktailDetails extends Cocktail {
-    private byte[] image;
+    // Ссылка на картинку; сами байты лежат в ImageStore и достаются только при отправке
+    private String imageUrl;
     private String instructions;
     private List<String> ingredients;
+    // Названия ингредиентов из CocktailDB как есть, без мер; перевод их не трогает, по ним строятся индекс и матрица
+    private List<String> sourceIngredients;
 }
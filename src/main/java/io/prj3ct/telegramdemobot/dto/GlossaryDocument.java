@@ -0,0 +1,17 @@
+package io.prj3ct.telegramdemobot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GlossaryDocument {
+    private int version;
+    private String source;
+    private String target;
+    private Map<String, String> entries;
+}
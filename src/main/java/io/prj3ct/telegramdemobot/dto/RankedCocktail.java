@@ -0,0 +1,9 @@
+package io.prj3ct.telegramdemobot.dto;
+
+import java.util.List;
+
+/**
+ * A cocktail from a partial-match search: how many of the user's ingredients it uses and what else it needs.
+ */
+public record RankedCocktail(Cocktail cocktail, int used, List<String> missing) {
+}
@@ -1,10 +1,15 @@
 package io.prj3ct.telegramdemobot.model;
 
+import io.prj3ct.telegramdemobot.dto.Cocktail;
+import io.prj3ct.telegramdemobot.dto.CocktailDetails;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Instant;
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @Document(collection = "cocktail_cache")
@@ -16,21 +21,59 @@ public class CocktailCache {
         INGREDIENTS_LIST
     }
 
+    // 1 - данные в responseJson строкой, 2 - данные в типизированных полях ниже
+    public static final int LEGACY_SCHEMA_VERSION = 1;
+    public static final int CURRENT_SCHEMA_VERSION = 2;
+
     @Id
     private String id;
 
     private String requestKey;
 
+    // Устаревший формат, остаётся только у ещё не мигрированных документов
     private String responseJson;
 
     private CacheType type;
 
     private boolean translated;
 
+    private Integer schemaVersion;
+
+    // Время последней записи из API; по нему решается, нужно ли фоновое обновление
+    private Instant updatedAt;
+
+    // Документ удаляется TTL-индексом после этого момента
+    private Instant expiresAt;
+
+    // Когда фоновая задача в последний раз пробовала перевести запись; по нему очередь на перевод ходит по кругу
+    private Instant translationAttemptAt;
+
+    // INGREDIENT_SEARCH
+    private List<Cocktail> cocktails;
+
+    // COCKTAIL_DETAILS
+    private CocktailDetails details;
+
+    // INGREDIENTS_LIST
+    private List<String> ingredients;
+
     public CocktailCache(String requestKey, String responseJson, CacheType type, boolean translated) {
         this.requestKey = requestKey;
         this.responseJson = responseJson;
         this.type = type;
         this.translated = translated;
+        this.schemaVersion = LEGACY_SCHEMA_VERSION;
+    }
+
+    public int effectiveSchemaVersion() {
+        return schemaVersion == null ? LEGACY_SCHEMA_VERSION : schemaVersion;
+    }
+
+    public static String payloadField(CacheType type) {
+        return switch (type) {
+            case INGREDIENT_SEARCH -> "cocktails";
+            case COCKTAIL_DETAILS -> "details";
+            case INGREDIENTS_LIST -> "ingredients";
+        };
     }
 }
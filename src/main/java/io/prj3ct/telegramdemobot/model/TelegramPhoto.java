@@ -0,0 +1,29 @@
+package io.prj3ct.telegramdemobot.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@Document(collection = "telegram_photos")
+public class TelegramPhoto {
+
+    // ID коктейля
+    @Id
+    private String id;
+
+    // file_id самого большого PhotoSize после первой загрузки; действителен только для этого бота
+    private String fileId;
+
+    private Instant createdAt;
+
+    public TelegramPhoto(String id, String fileId) {
+        this.id = id;
+        this.fileId = fileId;
+        this.createdAt = Instant.now();
+    }
+}
@@ -0,0 +1,37 @@
+package io.prj3ct.telegramdemobot.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@Document(collection = "translation_memory")
+public class TranslationMemoryEntry {
+
+    // Хеш от (source, target, text), чтобы длинные тексты не попадали в _id
+    @Id
+    private String id;
+
+    private String text;
+
+    private String source;
+
+    private String target;
+
+    private String translation;
+
+    private Instant createdAt;
+
+    public TranslationMemoryEntry(String id, String text, String source, String target, String translation) {
+        this.id = id;
+        this.text = text;
+        this.source = source;
+        this.target = target;
+        this.translation = translation;
+        this.createdAt = Instant.now();
+    }
+}
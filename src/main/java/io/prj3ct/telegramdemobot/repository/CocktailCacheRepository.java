@@ -2,11 +2,19 @@ package io.prj3ct.telegramdemobot.repository;
 
 import io.prj3ct.telegramdemobot.model.CocktailCache;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
-public interface CocktailCacheRepository extends MongoRepository<CocktailCache, String> {
+public interface CocktailCacheRepository extends MongoRepository<CocktailCache, String>, CocktailCacheRepositoryCustom {
     Optional<CocktailCache> findByRequestKeyAndType(String requestKey, CocktailCache.CacheType type);
+
+    void deleteByRequestKeyAndType(String requestKey, CocktailCache.CacheType type);
+
+    // Для чтения кеша нужны только данные, флаг перевода и время обновления
+    @Query(value = "{ 'requestKey': ?0, 'type': ?1 }",
+            fields = "{ '_id': 0, 'responseJson': 1, 'translated': 1, 'schemaVersion': 1, 'updatedAt': 1, 'cocktails': 1, 'details': 1, 'ingredients': 1 }")
+    Optional<CocktailCache> findCachedResponse(String requestKey, CocktailCache.CacheType type);
 }
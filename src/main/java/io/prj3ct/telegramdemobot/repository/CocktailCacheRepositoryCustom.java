@@ -0,0 +1,14 @@
+package io.prj3ct.telegramdemobot.repository;
+
+import io.prj3ct.telegramdemobot.model.CocktailCache;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface CocktailCacheRepositoryCustom {
+    void upsert(String requestKey, CocktailCache.CacheType type, Object payload, boolean translated, Instant expiresAt);
+
+    List<String> findUntranslatedKeys(CocktailCache.CacheType type, Instant attemptedBefore, int limit);
+
+    void markTranslationAttempt(String requestKey, CocktailCache.CacheType type);
+}
@@ -0,0 +1,64 @@
+package io.prj3ct.telegramdemobot.repository;
+
+import io.prj3ct.telegramdemobot.model.CocktailCache;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.List;
+
+public class CocktailCacheRepositoryImpl implements CocktailCacheRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public CocktailCacheRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void upsert(String requestKey, CocktailCache.CacheType type, Object payload, boolean translated, Instant expiresAt) {
+        Query query = Query.query(Criteria.where("requestKey").is(requestKey).and("type").is(type));
+        Update update = new Update()
+                .set(CocktailCache.payloadField(type), payload)
+                .set("translated", translated)
+                .set("schemaVersion", CocktailCache.CURRENT_SCHEMA_VERSION)
+                .set("updatedAt", Instant.now())
+                .set("expiresAt", expiresAt)
+                .unset("responseJson");
+        mongoTemplate.upsert(query, update, CocktailCache.class);
+    }
+
+    @Override
+    public List<String> findUntranslatedKeys(CocktailCache.CacheType type, Instant attemptedBefore, int limit) {
+        // Записи, которые перевести не выходит (например, "B-52"), не должны вечно стоять в начале очереди:
+        // недавно пробованные пропускаются, остальные идут от давно не пробованных
+        Criteria notRecentlyAttempted = new Criteria().orOperator(
+                Criteria.where("translationAttemptAt").lt(attemptedBefore),
+                Criteria.where("translationAttemptAt").exists(false));
+        Criteria criteria = Criteria.where("type").is(type).and("translated").is(false);
+        if (type == CocktailCache.CacheType.INGREDIENT_SEARCH) {
+            // Названия переводятся только для поиска на русском, остальные записи непереведёнными и останутся
+            criteria = criteria.and("requestKey").regex("[а-яё]");
+        }
+        Query query = Query.query(criteria.andOperator(notRecentlyAttempted))
+                .with(Sort.by(Sort.Direction.ASC, "translationAttemptAt"));
+        return findKeys(query, limit);
+    }
+
+    @Override
+    public void markTranslationAttempt(String requestKey, CocktailCache.CacheType type) {
+        Query query = Query.query(Criteria.where("requestKey").is(requestKey).and("type").is(type));
+        mongoTemplate.updateFirst(query, Update.update("translationAttemptAt", Instant.now()), CocktailCache.class);
+    }
+
+    private List<String> findKeys(Query query, int limit) {
+        query.fields().include("requestKey");
+        query.limit(limit);
+        return mongoTemplate.find(query, CocktailCache.class).stream()
+                .map(CocktailCache::getRequestKey)
+                .toList();
+    }
+}
@@ -0,0 +1,9 @@
+package io.prj3ct.telegramdemobot.repository;
+
+import io.prj3ct.telegramdemobot.model.TelegramPhoto;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TelegramPhotoRepository extends MongoRepository<TelegramPhoto, String> {
+}
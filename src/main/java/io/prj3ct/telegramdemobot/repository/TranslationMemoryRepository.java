@@ -0,0 +1,9 @@
+package io.prj3ct.telegramdemobot.repository;
+
+import io.prj3ct.telegramdemobot.model.TranslationMemoryEntry;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TranslationMemoryRepository extends MongoRepository<TranslationMemoryEntry, String> {
+}
@@ -1,20 +1,40 @@
 package io.prj3ct.telegramdemobot.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.prj3ct.telegramdemobot.config.CacheFreshnessConfig;
 import io.prj3ct.telegramdemobot.dto.Cocktail;
 import io.prj3ct.telegramdemobot.dto.CocktailDetails;
+import io.prj3ct.telegramdemobot.dto.RankedCocktail;
 import io.prj3ct.telegramdemobot.model.CocktailCache;
 import io.prj3ct.telegramdemobot.repository.CocktailCacheRepository;
+import io.prj3ct.telegramdemobot.service.cache.CachePayloadCodec;
+import io.prj3ct.telegramdemobot.service.cache.CocktailL1Cache;
+import io.prj3ct.telegramdemobot.service.cache.NegativeLookupCache;
+import io.prj3ct.telegramdemobot.service.cache.SingleFlight;
+import io.prj3ct.telegramdemobot.service.cache.StaleEntryQueue;
+import io.prj3ct.telegramdemobot.service.client.CocktailApiAsyncClient;
 import io.prj3ct.telegramdemobot.service.client.CocktailApiClient;
+import io.prj3ct.telegramdemobot.service.index.CocktailIngredientMatrix;
+import io.prj3ct.telegramdemobot.service.index.IngredientIndex;
+import io.prj3ct.telegramdemobot.service.index.IngredientMatcher;
+import io.prj3ct.telegramdemobot.service.lookup.CocktailLookupExecutor;
 import io.prj3ct.telegramdemobot.service.parser.CocktailApiDataParser;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -25,20 +45,60 @@ public class CocktailDBService {
 
     private final TranslationService translationService;
     private final CocktailCacheRepository cocktailCacheRepository;
-    private final ObjectMapper objectMapper;
+    private final CachePayloadCodec cachePayloadCodec;
     private final CocktailApiClient cocktailApiClient;
+    private final CocktailApiAsyncClient cocktailApiAsyncClient;
     private final CocktailApiDataParser cocktailApiDataParser;
+    private final CocktailL1Cache l1Cache;
+    private final CacheFreshnessConfig freshnessConfig;
+    private final StaleEntryQueue staleEntries;
+    private final NegativeLookupCache negativeCache;
+    private final IngredientIndex ingredientIndex;
+    private final CocktailLookupExecutor lookupExecutor;
+    private final IngredientMatcher ingredientMatcher;
+    private final CocktailIngredientMatrix ingredientMatrix;
+    private final ImageStore imageStore;
+    private final PhotoFileIdCache photoFileIds;
+    private final int whatCanMakeLimit;
+    private final SingleFlight<LoadKey, Object> inFlightLoads = new SingleFlight<>();
+
+    private record LoadKey(CocktailCache.CacheType type, String requestKey) {
+    }
 
     public CocktailDBService(TranslationService translationService,
                              CocktailCacheRepository cocktailCacheRepository,
-                             ObjectMapper objectMapper,
+                             CachePayloadCodec cachePayloadCodec,
                              CocktailApiClient cocktailApiClient,
-                             CocktailApiDataParser cocktailApiDataParser) {
+                             CocktailApiAsyncClient cocktailApiAsyncClient,
+                             CocktailApiDataParser cocktailApiDataParser,
+                             CocktailL1Cache l1Cache,
+                             CacheFreshnessConfig freshnessConfig,
+                             StaleEntryQueue staleEntries,
+                             NegativeLookupCache negativeCache,
+                             IngredientIndex ingredientIndex,
+                             CocktailLookupExecutor lookupExecutor,
+                             IngredientMatcher ingredientMatcher,
+                             CocktailIngredientMatrix ingredientMatrix,
+                             ImageStore imageStore,
+                             PhotoFileIdCache photoFileIds,
+                             @Value("${search.what-can-make.limit:10}") int whatCanMakeLimit) {
         this.translationService = translationService;
         this.cocktailCacheRepository = cocktailCacheRepository;
-        this.objectMapper = objectMapper;
+        this.cachePayloadCodec = cachePayloadCodec;
         this.cocktailApiClient = cocktailApiClient;
+        this.cocktailApiAsyncClient = cocktailApiAsyncClient;
         this.cocktailApiDataParser = cocktailApiDataParser;
+        this.l1Cache = l1Cache;
+        this.freshnessConfig = freshnessConfig;
+        this.staleEntries = staleEntries;
+        this.negativeCache = negativeCache;
+        this.ingredientIndex = ingredientIndex;
+        this.lookupExecutor = lookupExecutor;
+        this.ingredientMatcher = ingredientMatcher;
+        this.ingredientMatrix = ingredientMatrix;
+        this.imageStore = imageStore;
+        this.photoFileIds = photoFileIds;
+        this.whatCanMakeLimit = whatCanMakeLimit;
     }
 
     private boolean isCyrillic(String text) {
@@ -46,48 +106,101 @@ public class CocktailDBService {
     }
 
     public List<Cocktail> findByIngredient(String ingredient) {
+        String cacheKey = ingredient.toLowerCase().trim();
+        // Проверяется до определения языка и перевода запроса, чтобы повторный мусорный запрос ничего не стоил
+        if (negativeCache.contains(CocktailCache.CacheType.INGREDIENT_SEARCH, cacheKey)) {
+            log.debug("Negative cache hit for key: '{}'", cacheKey);
+            return Collections.emptyList();
+        }
+        return loadOnce(CocktailCache.CacheType.INGREDIENT_SEARCH, cacheKey, () -> loadByIngredient(ingredient));
+    }
+
+    private List<Cocktail> loadByIngredient(String ingredient) {
+        List<Cocktail> cached = cachedByIngredient(ingredient);
+        if (cached != null) {
+            return cached;
+        }
+        String cacheKey = ingredient.toLowerCase().trim();
+        log.info("No cache entry for key: '{}'. Requesting from API.", cacheKey);
+        try {
+            return fetchByIngredient(ingredient, cacheKey, isCyrillic(ingredient));
+        } catch (RuntimeException e) {
+            log.error("CocktailDB lookup failed for key: '{}'", cacheKey, e);
+            negativeCache.recordFailure(CocktailCache.CacheType.INGREDIENT_SEARCH, cacheKey);
+            return Collections.emptyList();
+        }
+    }
+
+    // Ответ из L1 или Mongo; null, если ключа нет ни там, ни там
+    private List<Cocktail> cachedByIngredient(String ingredient) {
         final String cacheKey = ingredient.toLowerCase().trim();
         final boolean queryIsCyrillic = isCyrillic(ingredient);
 
-        Optional<CocktailCache> cachedResponse = cocktailCacheRepository.findByRequestKeyAndType(cacheKey, CocktailCache.CacheType.INGREDIENT_SEARCH);
+        CocktailL1Cache.Entry<List<Cocktail>> local = l1Cache.get(CocktailCache.CacheType.INGREDIENT_SEARCH, cacheKey);
+        if (local != null) {
+            if (!local.translated() && queryIsCyrillic) {
+                staleEntries.addUntranslated(CocktailCache.CacheType.INGREDIENT_SEARCH, cacheKey);
+            }
+            return local.value();
+        }
+
+        Optional<CocktailCache> cachedResponse = cocktailCacheRepository.findCachedResponse(cacheKey, CocktailCache.CacheType.INGREDIENT_SEARCH);
 
         if (cachedResponse.isPresent()) {
             CocktailCache cache = cachedResponse.get();
             log.info("Found response in cache for key: '{}'. Translated: {}", cacheKey, cache.isTranslated());
             try {
-                List<Cocktail> cocktails = objectMapper.readValue(cache.getResponseJson(), new TypeReference<List<Cocktail>>() {});
+                List<Cocktail> cocktails = cachePayloadCodec.read(cache, CocktailCache.CacheType.INGREDIENT_SEARCH);
+                refreshIfStale(cache, CocktailCache.CacheType.INGREDIENT_SEARCH, cacheKey);
+                ingredientIndex.indexSearch(cacheKey, cocktails);
                 if (!cache.isTranslated() && queryIsCyrillic) {
-                    log.info("Cache entry for '{}' is not translated. Attempting to translate now.", cacheKey);
-                    try {
-                        cocktails.forEach(cocktail -> cocktail.setName(translationService.translate(cocktail.getName(), "en", "ru")));
-                        boolean isTranslated = !cocktails.isEmpty() && isCyrillic(cocktails.get(0).getName());
-                        cacheAndLog(cacheKey, cocktails, CocktailCache.CacheType.INGREDIENT_SEARCH, isTranslated);
-                        if (isTranslated) {
-                            log.info("Successfully translated and updated cache for key: '{}'", cacheKey);
-                        } else {
-                            log.warn("Failed to translate from cache for key: '{}', translator might be down. Caching as untranslated.", cacheKey);
-                        }
-                        return cocktails;
-                    } catch (Exception e) {
-                        log.error("Failed to translate from cache for key: '{}'. Returning untranslated data.", cacheKey, e);
-                    }
+                    // Перевод делает фоновая задача, пользователь сразу получает непереведённую копию
+                    staleEntries.addUntranslated(CocktailCache.CacheType.INGREDIENT_SEARCH, cacheKey);
                 }
+                l1Cache.put(CocktailCache.CacheType.INGREDIENT_SEARCH, cacheKey, cocktails, cache.isTranslated());
                 return cocktails;
             } catch (JsonProcessingException e) {
                 log.error("Failed to deserialize cached cocktails for key: {}. Refetching.", cacheKey, e);
             }
         }
+        return null;
+    }
 
-        log.info("No cache entry for key: '{}'. Requesting from API.", cacheKey);
-        String translatedIngredientForApi = queryIsCyrillic ? translationService.translate(ingredient, "ru", "en") : ingredient;
-        if (queryIsCyrillic) log.info("Translated ingredient '{}' to '{}'", ingredient, translatedIngredientForApi);
-
+    private List<Cocktail> fetchByIngredient(String ingredient, String cacheKey, boolean queryIsCyrillic) {
+        String translatedIngredientForApi = resolveApiIngredient(ingredient, queryIsCyrillic);
         String apiResponse = cocktailApiClient.findByIngredient(translatedIngredientForApi.toLowerCase().trim());
+        return storeSearchResult(cacheKey, translatedIngredientForApi, apiResponse, queryIsCyrillic);
+    }
+
+    private String resolveApiIngredient(String ingredient, boolean queryIsCyrillic) {
+        // Известный ингредиент (в том числе с опечаткой) сразу приводится к названию CocktailDB, без переводчика
+        Optional<String> knownIngredient = ingredientMatcher.resolve(ingredient);
+        String translatedIngredientForApi;
+        if (knownIngredient.isPresent()) {
+            translatedIngredientForApi = knownIngredient.get();
+            log.info("Resolved ingredient '{}' locally to '{}'", ingredient, translatedIngredientForApi);
+        } else {
+            translatedIngredientForApi = queryIsCyrillic ? translationService.translate(ingredient, "ru", "en") : ingredient;
+            if (queryIsCyrillic) log.info("Translated ingredient '{}' to '{}'", ingredient, translatedIngredientForApi);
+        }
+        return translatedIngredientForApi;
+    }
+
+    private List<Cocktail> storeSearchResult(String cacheKey, String translatedIngredientForApi, String apiResponse,
+                                             boolean queryIsCyrillic) {
         List<Cocktail> cocktails = cocktailApiDataParser.parseCocktailList(apiResponse, translatedIngredientForApi);
+        ingredientIndex.indexSearch(cacheKey, cocktails);
+        if (!translatedIngredientForApi.equalsIgnoreCase(cacheKey)) {
+            ingredientIndex.indexSearch(translatedIngredientForApi, cocktails);
+        }
+        if (cocktails.isEmpty()) {
+            rememberEmpty(CocktailCache.CacheType.INGREDIENT_SEARCH, cacheKey);
+            return cocktails;
+        }
 
         if (queryIsCyrillic) {
             try {
-                cocktails.forEach(cocktail -> cocktail.setName(translationService.translate(cocktail.getName(), "en", "ru")));
+                translateCocktailNames(cocktails);
                 boolean isTranslated = !cocktails.isEmpty() && isCyrillic(cocktails.get(0).getName());
                 cacheAndLog(cacheKey, cocktails, CocktailCache.CacheType.INGREDIENT_SEARCH, isTranslated);
             } catch (Exception e) {
@@ -106,68 +219,279 @@ public class CocktailDBService {
             return Collections.emptyList();
         }
 
-        List<Cocktail> result = findByIngredient(ingredients.get(0));
-        if (result.isEmpty()) {
-            return Collections.emptyList();
+        // Все ингредиенты уже проиндексированы: пересечение считается по битовым картам без запросов к API
+        Optional<BitSet> indexed = ingredientIndex.intersect(ingredients);
+        if (indexed.isPresent()) {
+            BitSet matches = indexed.get();
+            if (matches.isEmpty()) {
+                return Collections.emptyList();
+            }
+            return findByIngredient(ingredients.get(0)).stream()
+                    .filter(cocktail -> ingredientIndex.contains(matches, cocktail.getId()))
+                    .collect(Collectors.toList());
+        }
+
+        return join(intersectAsync(ingredients));
+    }
+
+    /**
+     * Partial-match search: cocktails ranked by how few ingredients are missing and how many of the given ones they use.
+     */
+    public List<RankedCocktail> findWhatCanMake(List<String> ingredients) {
+        return ingredientMatrix.rank(ingredients, whatCanMakeLimit);
+    }
+
+    /*
+     * Асинхронные варианты: кеш читается на пуле поиска, а пока ждём ответа CocktailDB, поток не занят вовсе -
+     * разбор, перевод и запись в кеш продолжаются на пуле, когда ответ пришёл.
+     * Загрузки одного ключа общие с синхронными методами.
+     */
+
+    public CompletableFuture<List<Cocktail>> findByIngredientAsync(String ingredient) {
+        String cacheKey = ingredient.toLowerCase().trim();
+        if (negativeCache.contains(CocktailCache.CacheType.INGREDIENT_SEARCH, cacheKey)) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
         }
+        return loadOnceAsync(CocktailCache.CacheType.INGREDIENT_SEARCH, cacheKey,
+                () -> lookupExecutor.supply(() -> cachedByIngredient(ingredient))
+                        .thenCompose(cached -> cached != null
+                                ? CompletableFuture.completedFuture(cached)
+                                : fetchByIngredientAsync(ingredient, cacheKey)));
+    }
 
-        List<String> resultIds = result.stream().map(Cocktail::getId).collect(Collectors.toList());
+    private CompletableFuture<List<Cocktail>> fetchByIngredientAsync(String ingredient, String cacheKey) {
+        boolean queryIsCyrillic = isCyrillic(ingredient);
+        log.info("No cache entry for key: '{}'. Requesting from API.", cacheKey);
+        return lookupExecutor.supply(() -> resolveApiIngredient(ingredient, queryIsCyrillic))
+                .thenCompose(apiIngredient -> cocktailApiAsyncClient.findByIngredient(apiIngredient.toLowerCase().trim())
+                        .thenApplyAsync(response -> storeSearchResult(cacheKey, apiIngredient, response, queryIsCyrillic),
+                                lookupExecutor.continuationExecutor()))
+                .exceptionally(e -> {
+                    log.error("CocktailDB lookup failed for key: '{}'", cacheKey, unwrap(e));
+                    negativeCache.recordFailure(CocktailCache.CacheType.INGREDIENT_SEARCH, cacheKey);
+                    return Collections.emptyList();
+                });
+    }
 
-        for (int i = 1; i < ingredients.size(); i++) {
-            List<Cocktail> cocktailsForNextIngredient = findByIngredient(ingredients.get(i));
-            List<String> nextIds = cocktailsForNextIngredient.stream().map(Cocktail::getId).collect(Collectors.toList());
-            resultIds.retainAll(nextIds);
+    public CompletableFuture<List<Cocktail>> findByMultipleIngredientsAsync(List<String> ingredients) {
+        if (ingredients == null || ingredients.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+
+        Optional<BitSet> indexed = ingredientIndex.intersect(ingredients);
+        if (indexed.isPresent()) {
+            BitSet matches = indexed.get();
+            if (matches.isEmpty()) {
+                return CompletableFuture.completedFuture(Collections.emptyList());
+            }
+            return findByIngredientAsync(ingredients.get(0)).thenApply(cocktails -> cocktails.stream()
+                    .filter(cocktail -> ingredientIndex.contains(matches, cocktail.getId()))
+                    .collect(Collectors.toList()));
         }
 
-        return result.stream()
-                .filter(cocktail -> resultIds.contains(cocktail.getId()))
+        return intersectAsync(ingredients);
+    }
+
+    // Ранжирование идёт по матрице в памяти, ждать там нечего
+    public CompletableFuture<List<RankedCocktail>> findWhatCanMakeAsync(List<String> ingredients) {
+        return CompletableFuture.completedFuture(findWhatCanMake(ingredients));
+    }
+
+    public CompletableFuture<CocktailDetails> findCocktailDetailsByIdAsync(String id) {
+        if (negativeCache.contains(CocktailCache.CacheType.COCKTAIL_DETAILS, id)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return loadOnceAsync(CocktailCache.CacheType.COCKTAIL_DETAILS, id,
+                () -> lookupExecutor.supply(() -> cachedCocktailDetails(id))
+                        .thenCompose(cached -> cached != null
+                                ? CompletableFuture.completedFuture(cached)
+                                : fetchCocktailDetailsAsync(id)));
+    }
+
+    private CompletableFuture<CocktailDetails> fetchCocktailDetailsAsync(String id) {
+        log.info("No details in cache for cocktail ID: {}. Requesting from API.", id);
+        return cocktailApiAsyncClient.findById(id)
+                .thenApplyAsync(response -> storeCocktailDetails(id, response), lookupExecutor.continuationExecutor())
+                .exceptionally(e -> {
+                    log.error("CocktailDB lookup failed for cocktail ID: {}", id, unwrap(e));
+                    negativeCache.recordFailure(CocktailCache.CacheType.COCKTAIL_DETAILS, id);
+                    return null;
+                });
+    }
+
+    public CompletableFuture<List<String>> getIngredientsListAsync() {
+        return cocktailApiAsyncClient.listIngredients()
+                .thenApplyAsync(cocktailApiDataParser::parseIngredientsList, lookupExecutor.continuationExecutor());
+    }
+
+    public CompletableFuture<List<String>> getTranslatedIngredientsAsync() {
+        if (negativeCache.contains(CocktailCache.CacheType.INGREDIENTS_LIST, INGREDIENTS_CACHE_KEY)) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+        return loadOnceAsync(CocktailCache.CacheType.INGREDIENTS_LIST, INGREDIENTS_CACHE_KEY,
+                () -> lookupExecutor.supply(this::cachedTranslatedIngredients)
+                        .thenCompose(cached -> cached != null
+                                ? CompletableFuture.completedFuture(cached)
+                                : fetchTranslatedIngredientsAsync()));
+    }
+
+    private CompletableFuture<List<String>> fetchTranslatedIngredientsAsync() {
+        log.info("No ingredients list in cache. Fetching and translating.");
+        return getIngredientsListAsync()
+                .thenApplyAsync(this::storeIngredients, lookupExecutor.continuationExecutor())
+                .exceptionally(e -> {
+                    log.error("Failed to fetch ingredients list from CocktailDB", unwrap(e));
+                    negativeCache.recordFailure(CocktailCache.CacheType.INGREDIENTS_LIST, INGREDIENTS_CACHE_KEY);
+                    return Collections.emptyList();
+                });
+    }
+
+    // Все ингредиенты ищутся одновременно; как только пересечение пустое, остальные результаты уже не ждём
+    private CompletableFuture<List<Cocktail>> intersectAsync(List<String> ingredients) {
+        List<CompletableFuture<List<Cocktail>>> lookups = ingredients.stream()
+                .map(this::findByIngredientAsync)
                 .collect(Collectors.toList());
+        RunningIntersection intersection = new RunningIntersection(lookups.size());
+        CompletableFuture<Void> settled = new CompletableFuture<>();
+        for (CompletableFuture<List<Cocktail>> lookup : lookups) {
+            lookup.whenComplete((cocktails, error) -> {
+                if (error != null) {
+                    settled.completeExceptionally(error);
+                } else if (intersection.retain(cocktails)) {
+                    settled.complete(null);
+                }
+            });
+        }
+
+        return settled.thenApply(ignored -> {
+            if (intersection.isEmpty()) {
+                lookups.forEach(lookup -> lookup.cancel(false));
+                return Collections.<Cocktail>emptyList();
+            }
+            // Порядок и названия берутся из результата первого ингредиента, как и раньше
+            return lookups.get(0).join().stream()
+                    .filter(cocktail -> intersection.contains(cocktail.getId()))
+                    .collect(Collectors.toList());
+        });
+    }
+
+    private static final class RunningIntersection {
+        private Set<String> ids;
+        private int remaining;
+
+        private RunningIntersection(int lookups) {
+            this.remaining = lookups;
+        }
+
+        /**
+         * Returns true once the result is known: every lookup arrived or the intersection became empty.
+         */
+        synchronized boolean retain(List<Cocktail> cocktails) {
+            Set<String> arrived = cocktails.stream().map(Cocktail::getId).collect(Collectors.toSet());
+            if (ids == null) {
+                ids = new HashSet<>(arrived);
+            } else {
+                ids.retainAll(arrived);
+            }
+            remaining--;
+            return remaining == 0 || ids.isEmpty();
+        }
+
+        synchronized boolean isEmpty() {
+            return ids == null || ids.isEmpty();
+        }
+
+        synchronized boolean contains(String id) {
+            return ids.contains(id);
+        }
     }
 
     public CocktailDetails findCocktailDetailsById(String id) {
-        Optional<CocktailCache> cachedDetails = cocktailCacheRepository.findByRequestKeyAndType(id, CocktailCache.CacheType.COCKTAIL_DETAILS);
+        if (negativeCache.contains(CocktailCache.CacheType.COCKTAIL_DETAILS, id)) {
+            log.debug("Negative cache hit for cocktail ID: {}", id);
+            return null;
+        }
+        return loadOnce(CocktailCache.CacheType.COCKTAIL_DETAILS, id, () -> loadCocktailDetails(id));
+    }
+
+    private CocktailDetails loadCocktailDetails(String id) {
+        CocktailDetails cached = cachedCocktailDetails(id);
+        if (cached != null) {
+            return cached;
+        }
+        log.info("No details in cache for cocktail ID: {}. Requesting from API.", id);
+        try {
+            return fetchCocktailDetails(id);
+        } catch (RuntimeException e) {
+            log.error("CocktailDB lookup failed for cocktail ID: {}", id, e);
+            negativeCache.recordFailure(CocktailCache.CacheType.COCKTAIL_DETAILS, id);
+            return null;
+        }
+    }
+
+    private CocktailDetails cachedCocktailDetails(String id) {
+        CocktailL1Cache.Entry<CocktailDetails> local = l1Cache.get(CocktailCache.CacheType.COCKTAIL_DETAILS, id);
+        if (local != null) {
+            if (!local.translated()) {
+                staleEntries.addUntranslated(CocktailCache.CacheType.COCKTAIL_DETAILS, id);
+            }
+            return local.value();
+        }
+
+        Optional<CocktailCache> cachedDetails = cocktailCacheRepository.findCachedResponse(id, CocktailCache.CacheType.COCKTAIL_DETAILS);
 
         if (cachedDetails.isPresent()) {
             CocktailCache cache = cachedDetails.get();
             log.info("Found details in cache for cocktail ID: {}. Translated: {}", id, cache.isTranslated());
             try {
-                CocktailDetails details = objectMapper.readValue(cache.getResponseJson(), CocktailDetails.class);
+                CocktailDetails details = cachePayloadCodec.read(cache, CocktailCache.CacheType.COCKTAIL_DETAILS);
+                refreshIfStale(cache, CocktailCache.CacheType.COCKTAIL_DETAILS, id);
+                if (details.getImageUrl() == null || details.getSourceIngredients() == null) {
+                    // Записано до выноса картинок в ImageStore или до хранения исходных названий ингредиентов:
+                    // перезапрашиваем в фоне, чтобы запись дополнилась
+                    staleEntries.add(CocktailCache.CacheType.COCKTAIL_DETAILS, id);
+                }
+                ingredientIndex.indexDetails(id, ingredientMatcher.canonicalIngredients(details));
+                ingredientMatrix.add(id, details.getName(), ingredientMatcher.canonicalIngredients(details));
                 if (!cache.isTranslated()) {
-                    log.info("Details for ID '{}' are not translated. Attempting to translate now.", id);
-                    try {
-                        translateCocktailDetails(details);
-                        boolean isTranslated = isCyrillic(details.getName());
-                        cacheAndLog(id, details, CocktailCache.CacheType.COCKTAIL_DETAILS, isTranslated);
-                        if (isTranslated) {
-                            log.info("Successfully translated and updated cache for ID: '{}'", id);
-                        } else {
-                            log.warn("Failed to translate from cache for ID: '{}', translator might be down. Caching as untranslated.", id);
-                        }
-                        return details;
-                    } catch (Exception e) {
-                        log.error("Failed to translate details from cache for ID: '{}'. Returning untranslated data.", id, e);
-                    }
+                    staleEntries.addUntranslated(CocktailCache.CacheType.COCKTAIL_DETAILS, id);
                 }
+                l1Cache.put(CocktailCache.CacheType.COCKTAIL_DETAILS, id, details, cache.isTranslated());
                 return details;
             } catch (JsonProcessingException e) {
                 log.error("Failed to deserialize cached cocktail details for ID: {}. Refetching.", id, e);
             }
         }
+        return null;
+    }
 
-        log.info("No details in cache for cocktail ID: {}. Requesting from API.", id);
-        String response = cocktailApiClient.findById(id);
+    private CocktailDetails fetchCocktailDetails(String id) {
+        return storeCocktailDetails(id, cocktailApiClient.findById(id));
+    }
+
+    private CocktailDetails storeCocktailDetails(String id, String response) {
         CocktailDetails details = cocktailApiDataParser.parseCocktailDetails(response);
+        if (details == null) {
+            rememberEmpty(CocktailCache.CacheType.COCKTAIL_DETAILS, id);
+            return null;
+        }
+        ingredientIndex.indexDetails(id, details.getSourceIngredients());
+        // Картинка качается параллельно с переводом; отправка потом заберёт её из ImageStore.
+        // Если фото уже есть в Telegram, оно уйдёт по file_id и качать нечего
+        if (photoFileIds.lookup(id) == null) {
+            imageStore.fetch(details.getImageUrl());
+        }
 
-        if (details != null) {
-            try {
-                translateCocktailDetails(details);
-                boolean isTranslated = isCyrillic(details.getName());
-                cacheAndLog(id, details, CocktailCache.CacheType.COCKTAIL_DETAILS, isTranslated);
-            } catch (Exception e) {
-                log.error("Failed to translate new details for ID: '{}'. Caching untranslated data.", id, e);
-                cacheAndLog(id, details, CocktailCache.CacheType.COCKTAIL_DETAILS, false);
-            }
+        try {
+            translateCocktailDetails(details);
+            boolean isTranslated = isCyrillic(details.getName());
+            cacheAndLog(id, details, CocktailCache.CacheType.COCKTAIL_DETAILS, isTranslated);
+        } catch (Exception e) {
+            log.error("Failed to translate new details for ID: '{}'. Caching untranslated data.", id, e);
+            cacheAndLog(id, details, CocktailCache.CacheType.COCKTAIL_DETAILS, false);
         }
+        // Ингредиенты в матрицу - в исходном виде, название - уже переведённое, если перевод удался
+        ingredientMatrix.add(id, details.getName(), details.getSourceIngredients());
 
         return details;
     }
@@ -178,87 +502,227 @@ public class CocktailDBService {
     }
 
     public List<String> getTranslatedIngredients() {
-        Optional<CocktailCache> cachedIngredients = cocktailCacheRepository.findByRequestKeyAndType(INGREDIENTS_CACHE_KEY, CocktailCache.CacheType.INGREDIENTS_LIST);
+        if (negativeCache.contains(CocktailCache.CacheType.INGREDIENTS_LIST, INGREDIENTS_CACHE_KEY)) {
+            return Collections.emptyList();
+        }
+        return loadOnce(CocktailCache.CacheType.INGREDIENTS_LIST, INGREDIENTS_CACHE_KEY, this::loadTranslatedIngredients);
+    }
+
+    private List<String> loadTranslatedIngredients() {
+        List<String> cached = cachedTranslatedIngredients();
+        if (cached != null) {
+            return cached;
+        }
+        log.info("No ingredients list in cache. Fetching and translating.");
+        try {
+            return fetchTranslatedIngredients();
+        } catch (RuntimeException e) {
+            log.error("Failed to fetch ingredients list from CocktailDB", e);
+            negativeCache.recordFailure(CocktailCache.CacheType.INGREDIENTS_LIST, INGREDIENTS_CACHE_KEY);
+            return Collections.emptyList();
+        }
+    }
+
+    private List<String> cachedTranslatedIngredients() {
+        CocktailL1Cache.Entry<List<String>> local = l1Cache.get(CocktailCache.CacheType.INGREDIENTS_LIST, INGREDIENTS_CACHE_KEY);
+        if (local != null) {
+            if (!local.translated()) {
+                staleEntries.addUntranslated(CocktailCache.CacheType.INGREDIENTS_LIST, INGREDIENTS_CACHE_KEY);
+            }
+            return local.value();
+        }
+
+        Optional<CocktailCache> cachedIngredients = cocktailCacheRepository.findCachedResponse(INGREDIENTS_CACHE_KEY, CocktailCache.CacheType.INGREDIENTS_LIST);
 
         if (cachedIngredients.isPresent()) {
             CocktailCache cache = cachedIngredients.get();
             log.info("Found ingredients list in cache. Translated: {}", cache.isTranslated());
             try {
-                List<String> ingredients = objectMapper.readValue(cache.getResponseJson(), new TypeReference<List<String>>() {});
+                List<String> ingredients = cachePayloadCodec.read(cache, CocktailCache.CacheType.INGREDIENTS_LIST);
+                refreshIfStale(cache, CocktailCache.CacheType.INGREDIENTS_LIST, INGREDIENTS_CACHE_KEY);
                 if (!cache.isTranslated()) {
-                    log.info("Ingredients list is not translated. Attempting to translate now.");
-                    try {
-                        List<String> translatedIngredients = ingredients.stream()
-                                .map(ing -> translationService.translate(ing, "en", "ru"))
-                                .collect(Collectors.toList());
-                        boolean isTranslated = !translatedIngredients.isEmpty() && isCyrillic(translatedIngredients.get(0));
-                        cacheAndLog(INGREDIENTS_CACHE_KEY, translatedIngredients, CocktailCache.CacheType.INGREDIENTS_LIST, isTranslated);
-                        if (isTranslated) {
-                            log.info("Successfully translated and updated ingredients cache.");
-                        } else {
-                            log.warn("Failed to translate ingredients from cache, translator might be down. Caching as untranslated.");
-                        }
-                        return translatedIngredients;
-                    } catch (Exception e) {
-                        log.error("Failed to translate ingredients from cache. Returning untranslated.", e);
-                    }
+                    staleEntries.addUntranslated(CocktailCache.CacheType.INGREDIENTS_LIST, INGREDIENTS_CACHE_KEY);
                 }
+                l1Cache.put(CocktailCache.CacheType.INGREDIENTS_LIST, INGREDIENTS_CACHE_KEY, ingredients, cache.isTranslated());
                 return ingredients;
             } catch (JsonProcessingException e) {
                 log.error("Failed to deserialize cached ingredients list. Refetching.", e);
             }
         }
+        return null;
+    }
 
-        log.info("No ingredients list in cache. Fetching and translating.");
-        List<String> ingredients = getIngredientsList();
+    private List<String> fetchTranslatedIngredients() {
+        return storeIngredients(getIngredientsList());
+    }
+
+    private List<String> storeIngredients(List<String> ingredients) {
+        if (ingredients.isEmpty()) {
+            rememberEmpty(CocktailCache.CacheType.INGREDIENTS_LIST, INGREDIENTS_CACHE_KEY);
+            return ingredients;
+        }
         try {
-            List<String> translatedIngredients = ingredients.stream()
-                    .map(ing -> translationService.translate(ing, "en", "ru"))
-                    .collect(Collectors.toList());
+            List<String> translatedIngredients = translationService.translateAll(ingredients, "en", "ru");
             boolean isTranslated = !translatedIngredients.isEmpty() && isCyrillic(translatedIngredients.get(0));
             cacheAndLog(INGREDIENTS_CACHE_KEY, translatedIngredients, CocktailCache.CacheType.INGREDIENTS_LIST, isTranslated);
+            ingredientMatcher.addTranslations(ingredients, translatedIngredients);
             return translatedIngredients;
         } catch (Exception e) {
             log.error("Failed to translate new ingredients list. Caching untranslated.", e);
             cacheAndLog(INGREDIENTS_CACHE_KEY, ingredients, CocktailCache.CacheType.INGREDIENTS_LIST, false);
+            ingredientMatcher.addCanonical(ingredients);
             return ingredients;
         }
     }
 
-    private void translateCocktailDetails(CocktailDetails details) {
-        details.setName(translationService.translate(details.getName(), "en", "ru"));
-        details.setInstructions(translationService.translate(details.getInstructions(), "en", "ru"));
-        List<String> translatedIngredients = details.getIngredients().stream()
-                .map(ing -> {
-                    String[] parts = ing.split(" - ", 2);
-                    String translatedIngredient = translationService.translate(parts[0], "en", "ru");
-                    return parts.length > 1 ? translatedIngredient + " - " + parts[1] : translatedIngredient;
-                })
-                .collect(Collectors.toList());
-        details.setIngredients(translatedIngredients);
+    /**
+     * Re-fetches an entry from the API and rewrites it in the cache. Used by the background refresh,
+     * so users keep getting the stale copy until the new one is stored.
+     */
+    public void refresh(CocktailCache.CacheType type, String requestKey) {
+        switch (type) {
+            case INGREDIENT_SEARCH -> loadOnce(type, requestKey, () -> fetchByIngredient(requestKey, requestKey, isCyrillic(requestKey)));
+            case COCKTAIL_DETAILS -> loadOnce(type, requestKey, () -> fetchCocktailDetails(requestKey));
+            case INGREDIENTS_LIST -> loadOnce(type, requestKey, this::fetchTranslatedIngredients);
+        }
     }
 
-    private void cacheAndLog(String key, Object data, CocktailCache.CacheType type, boolean translated) {
+    /**
+     * Translates an entry that was cached untranslated and rewrites it. Only the background refresh calls this:
+     * reads serve the untranslated copy and leave the translation to it. Returns whether a translation was attempted.
+     */
+    public boolean retranslate(CocktailCache.CacheType type, String requestKey, Instant attemptedBefore) {
+        Optional<CocktailCache> cached = cocktailCacheRepository.findCachedResponse(requestKey, type);
+        if (cached.isEmpty() || cached.get().isTranslated()) {
+            return false;
+        }
+        // Запись, которую недавно уже пробовали перевести (например, "B-52"), не переводится на каждом чтении
+        Instant lastAttempt = cached.get().getTranslationAttemptAt();
+        if (lastAttempt != null && lastAttempt.isAfter(attemptedBefore)) {
+            return false;
+        }
+        cocktailCacheRepository.markTranslationAttempt(requestKey, type);
         try {
-            String json = objectMapper.writeValueAsString(data);
+            switch (type) {
+                case INGREDIENT_SEARCH -> {
+                    List<Cocktail> cocktails = cachePayloadCodec.read(cached.get(), type);
+                    translateCocktailNames(cocktails);
+                    cacheIfTranslated(requestKey, cocktails, type, !cocktails.isEmpty() && isCyrillic(cocktails.get(0).getName()));
+                }
+                case COCKTAIL_DETAILS -> {
+                    CocktailDetails details = cachePayloadCodec.read(cached.get(), type);
+                    translateCocktailDetails(details);
+                    cacheIfTranslated(requestKey, details, type, isCyrillic(details.getName()));
+                }
+                case INGREDIENTS_LIST -> {
+                    List<String> ingredients = cachePayloadCodec.read(cached.get(), type);
+                    List<String> translatedIngredients = translationService.translateAll(ingredients, "en", "ru");
+                    boolean isTranslated = !translatedIngredients.isEmpty() && isCyrillic(translatedIngredients.get(0));
+                    if (cacheIfTranslated(requestKey, translatedIngredients, type, isTranslated)) {
+                        ingredientMatcher.addTranslations(ingredients, translatedIngredients);
+                    }
+                }
+            }
+        } catch (JsonProcessingException e) {
+            log.error("Failed to deserialize {} cache entry '{}' for re-translation", type, requestKey, e);
+        }
+        return true;
+    }
 
-            Optional<CocktailCache> existingCacheOpt = cocktailCacheRepository.findByRequestKeyAndType(key, type);
+    // Непереведённый результат не перезаписывается: иначе updatedAt сдвинулся бы без нового ответа API
+    private boolean cacheIfTranslated(String key, Object data, CocktailCache.CacheType type, boolean translated) {
+        if (!translated) {
+            log.warn("Re-translation of {} cache entry '{}' gave no translation, translator might be down", type, key);
+            return false;
+        }
+        cacheAndLog(key, data, type, true);
+        return true;
+    }
 
-            CocktailCache cacheToSave;
-            if (existingCacheOpt.isPresent()) {
-                cacheToSave = existingCacheOpt.get();
-                cacheToSave.setResponseJson(json);
-                cacheToSave.setTranslated(translated);
-                log.info("Updating cache for key: '{}'. Translated: {}", key, translated);
-            } else {
-                cacheToSave = new CocktailCache(key, json, type, translated);
-                log.info("Saving new cache for key: '{}'. Translated: {}", key, translated);
-            }
+    // Пустой ответ не пишется в Mongo: он живёт только в негативном кеше, а прежняя запись для ключа удаляется
+    private void rememberEmpty(CocktailCache.CacheType type, String key) {
+        log.info("CocktailDB returned nothing for {} key: '{}'", type, key);
+        negativeCache.recordEmpty(type, key);
+        l1Cache.invalidate(type, key);
+        try {
+            cocktailCacheRepository.deleteByRequestKeyAndType(key, type);
+        } catch (RuntimeException e) {
+            log.error("Failed to remove cache entry. Key: '{}'", key, e);
+        }
+    }
 
-            cocktailCacheRepository.save(cacheToSave);
+    private void refreshIfStale(CocktailCache cache, CocktailCache.CacheType type, String requestKey) {
+        Instant updatedAt = cache.getUpdatedAt();
+        Duration freshFor = freshnessConfig.forType(type).getFreshFor();
+        if (updatedAt == null || updatedAt.plus(freshFor).isBefore(Instant.now())) {
+            staleEntries.add(type, requestKey);
+        }
+    }
 
-        } catch (JsonProcessingException e) {
-            log.error("Failed to serialize for caching. Key: '{}'", key, e);
+    // Параллельные промахи по одному ключу ждут единственную загрузку вместо того, чтобы запускать свою
+    @SuppressWarnings("unchecked")
+    private <T> T loadOnce(CocktailCache.CacheType type, String requestKey, Supplier<T> loader) {
+        return (T) inFlightLoads.execute(new LoadKey(type, requestKey), loader::get);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> loadOnceAsync(CocktailCache.CacheType type, String requestKey,
+                                                   Supplier<CompletableFuture<T>> loader) {
+        return (CompletableFuture<T>) inFlightLoads.executeAsync(new LoadKey(type, requestKey), loader);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    private void translateCocktailNames(List<Cocktail> cocktails) {
+        List<String> names = cocktails.stream().map(Cocktail::getName).collect(Collectors.toList());
+        List<String> translatedNames = translationService.translateAll(names, "en", "ru");
+        for (int i = 0; i < cocktails.size(); i++) {
+            cocktails.get(i).setName(translatedNames.get(i));
+        }
+    }
+
+    private void translateCocktailDetails(CocktailDetails details) {
+        List<String[]> ingredientParts = details.getIngredients().stream()
+                .map(ing -> ing.split(" - ", 2))
+                .collect(Collectors.toList());
+
+        // Название, инструкция и все ингредиенты уходят в переводчик одним пакетом
+        List<String> texts = new ArrayList<>(ingredientParts.size() + 2);
+        texts.add(details.getName());
+        texts.add(details.getInstructions());
+        ingredientParts.forEach(parts -> texts.add(parts[0]));
+        List<String> translated = translationService.translateAll(texts, "en", "ru");
+
+        details.setName(translated.get(0));
+        details.setInstructions(translated.get(1));
+        List<String> translatedIngredients = new ArrayList<>(ingredientParts.size());
+        for (int i = 0; i < ingredientParts.size(); i++) {
+            String[] parts = ingredientParts.get(i);
+            String translatedIngredient = translated.get(i + 2);
+            translatedIngredients.add(parts.length > 1 ? translatedIngredient + " - " + parts[1] : translatedIngredient);
+        }
+        details.setIngredients(translatedIngredients);
+    }
+
+    private void cacheAndLog(String key, Object data, CocktailCache.CacheType type, boolean translated) {
+        try {
+            Instant expiresAt = Instant.now().plus(freshnessConfig.forType(type).getExpireAfter());
+            cocktailCacheRepository.upsert(key, type, data, translated, expiresAt);
+            log.info("Saved cache for key: '{}'. Translated: {}", key, translated);
+            l1Cache.put(type, key, data, translated);
+        } catch (RuntimeException e) {
+            log.error("Failed to write cache. Key: '{}'", key, e);
+            l1Cache.invalidate(type, key);
         }
     }
 }
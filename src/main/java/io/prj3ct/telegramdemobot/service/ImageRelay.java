@@ -0,0 +1,116 @@
+package io.prj3ct.telegramdemobot.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+/**
+ * Streams a cocktail image into a Telegram upload without holding the whole picture in memory. The stream
+ * opens its source on first read, on the thread doing the upload: the stored copy from {@link ImageStore}
+ * if there is one, otherwise the image URL. Bytes pass straight through into the reader's buffer; a size
+ * cap stops oversized images before and during the transfer.
+ */
+@Slf4j
+@Component
+public class ImageRelay {
+
+    private final ClientHttpRequestFactory requestFactory;
+    private final ImageStore imageStore;
+    private final long maxBytes;
+
+    public ImageRelay(@Qualifier("imageRestTemplate") RestTemplate imageRestTemplate,
+                      ImageStore imageStore,
+                      @Value("${images.max-size:5MB}") DataSize maxSize) {
+        this.requestFactory = imageRestTemplate.getRequestFactory();
+        this.imageStore = imageStore;
+        this.maxBytes = maxSize.toBytes();
+    }
+
+    /**
+     * Returns a new single-use stream of the image. Nothing is fetched until it is read.
+     */
+    public InputStream open(String url) {
+        return new RelayInputStream(url);
+    }
+
+    private final class RelayInputStream extends InputStream {
+
+        private final String url;
+        private InputStream source;
+        private ClientHttpResponse response;
+        private long transferred;
+
+        private RelayInputStream(String url) {
+            this.url = url;
+        }
+
+        private InputStream source() throws IOException {
+            if (source != null) {
+                return source;
+            }
+            source = imageStore.openStored(url);
+            if (source != null) {
+                return source;
+            }
+            response = requestFactory.createRequest(URI.create(url), HttpMethod.GET).execute();
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                throw new IOException("Image host answered " + response.getStatusCode() + " for " + url);
+            }
+            long declared = response.getHeaders().getContentLength();
+            if (declared > maxBytes) {
+                throw new IOException("Image " + url + " is " + declared + " bytes, over the " + maxBytes + " byte limit");
+            }
+            source = response.getBody();
+            return source;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = source().read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = source().read(buffer, offset, length);
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        // Content-Length может отсутствовать или врать, поэтому лимит проверяется и по факту
+        private void count(int read) throws IOException {
+            transferred += read;
+            if (transferred > maxBytes) {
+                throw new IOException("Image " + url + " exceeds the " + maxBytes + " byte limit");
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (source != null) {
+                    source.close();
+                }
+            } finally {
+                if (response != null) {
+                    response.close();
+                }
+            }
+        }
+    }
+}
@@ -1,19 +1,29 @@
 package io.prj3ct.telegramdemobot.service;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
 @Slf4j
 @Service
 public class ImageService {
 
     private final RestTemplate restTemplate;
+    private final long maxBytes;
 
-    public ImageService(RestTemplate restTemplate) {
+    public ImageService(@Qualifier("imageRestTemplate") RestTemplate restTemplate,
+                        @Value("${images.max-size:5MB}") DataSize maxSize) {
         this.restTemplate = restTemplate;
+        this.maxBytes = maxSize.toBytes();
     }
 
     public byte[] downloadImage(String url) {
@@ -21,17 +31,33 @@ public class ImageService {
             return null;
         }
         try {
-            ResponseEntity<byte[]> response = restTemplate.exchange(url, HttpMethod.GET, null, byte[].class);
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+            byte[] image = restTemplate.execute(URI.create(url), HttpMethod.GET, null, this::readCapped);
+            if (image != null) {
                 log.info("Successfully downloaded image from URL: {}", url);
-                return response.getBody();
-            } else {
-                log.warn("Failed to download image from URL: {}. Status: {}", url, response.getStatusCode());
-                return null;
             }
+            return image;
         } catch (Exception e) {
             log.error("Error downloading image from URL {}: {}", url, e.getMessage());
             return null;
         }
     }
+
+    // Тело читается с ограничением images.max-size, а не целиком: картинка оседает в памяти и в ImageStore
+    private byte[] readCapped(ClientHttpResponse response) throws IOException {
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            log.warn("Failed to download image. Status: {}", response.getStatusCode());
+            return null;
+        }
+        long declared = response.getHeaders().getContentLength();
+        if (declared > maxBytes) {
+            throw new IOException("image is " + declared + " bytes, over the " + maxBytes + " byte limit");
+        }
+        try (InputStream body = response.getBody()) {
+            byte[] image = body.readNBytes((int) Math.min(maxBytes + 1, Integer.MAX_VALUE));
+            if (image.length > maxBytes) {
+                throw new IOException("image exceeds the " + maxBytes + " byte limit");
+            }
+            return image.length == 0 ? null : image;
+        }
+    }
 }
@@ -0,0 +1,332 @@
+package io.prj3ct.telegramdemobot.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.gridfs.GridFsResource;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.data.mongodb.gridfs.GridFsUpload;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.gridfs.GridFsCriteria.whereFilename;
+import static org.springframework.data.mongodb.gridfs.GridFsCriteria.whereMetaData;
+
+/**
+ * Content-addressed store for cocktail images in GridFS: each file is named by the SHA-256 of its bytes, so
+ * the same picture behind different URLs is stored once. The source URLs are kept in the file metadata and
+ * are how the {@code imageUrl} of cocktail details is resolved. Recently used images stay in a heap tier
+ * bounded by total size.
+ */
+@Slf4j
+@Component
+public class ImageStore {
+
+    public static final String SOURCE_URLS = "sourceUrls";
+    private static final String FILES_COLLECTION = "fs.files";
+    private static final String CHUNKS_COLLECTION = "fs.chunks";
+
+    private final GridFsTemplate gridFs;
+    private final MongoTemplate mongoTemplate;
+    private final ImageService imageService;
+    private final Cache<String, String> hashByUrl;
+    private final Cache<String, byte[]> bytesByHash;
+    private final ThreadPoolExecutor fetchers;
+    private final Duration fetchTimeout;
+    private final Map<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+
+    public ImageStore(GridFsTemplate gridFs,
+                      MongoTemplate mongoTemplate,
+                      ImageService imageService,
+                      @Value("${images.cache.max-size:16MB}") DataSize maxCachedBytes,
+                      @Value("${images.fetch-timeout:3s}") Duration fetchTimeout,
+                      @Value("${images.fetch.threads:4}") int fetchThreads,
+                      @Value("${images.fetch.queue-capacity:32}") int fetchQueueCapacity) {
+        this.gridFs = gridFs;
+        this.mongoTemplate = mongoTemplate;
+        this.imageService = imageService;
+        // Свой пул, который никогда не выполняет загрузку на вызывающем потоке: иначе при занятом пуле картинка
+        // качалась бы прямо внутри storeCocktailDetails без всякого таймаута. Переполнение очереди — отказ,
+        // и ответ уходит без картинки
+        int poolSize = Math.max(1, fetchThreads);
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.fetchers = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, fetchQueueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "image-fetch-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.fetchers.allowCoreThreadTimeOut(true);
+        this.fetchTimeout = fetchTimeout;
+        this.hashByUrl = Caffeine.newBuilder().maximumSize(10_000).build();
+        this.bytesByHash = Caffeine.newBuilder()
+                .maximumWeight(maxCachedBytes.toBytes())
+                .weigher((String hash, byte[] bytes) -> bytes.length)
+                .build();
+    }
+
+    /**
+     * Starts resolving the image in the background; concurrent requests for the same URL share one fetch.
+     */
+    public CompletableFuture<byte[]> fetch(String url) {
+        if (url == null || url.isBlank()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<byte[]> existing = inFlight.get(url);
+        if (existing != null) {
+            return existing;
+        }
+        CompletableFuture<byte[]> started = new CompletableFuture<>();
+        existing = inFlight.putIfAbsent(url, started);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            CompletableFuture.supplyAsync(() -> load(url), fetchers).whenComplete((bytes, error) -> {
+                inFlight.remove(url, started);
+                if (error != null) {
+                    started.completeExceptionally(error);
+                } else {
+                    started.complete(bytes);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(url, started);
+            started.completeExceptionally(e);
+        }
+        return started;
+    }
+
+    /**
+     * Waits for the image at most {@code images.fetch-timeout}. A slow image host makes the caller go on
+     * without the picture while the fetch finishes in the background and lands in the store for next time.
+     */
+    public byte[] loadWithinTimeout(String url) {
+        try {
+            return fetch(url).get(fetchTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Image {} not ready within {} ms, sending without it", url, fetchTimeout.toMillis());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            log.warn("Failed to fetch image {}: {}", url, e.getCause().getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Whether a download of the image is already under way.
+     */
+    public boolean isFetching(String url) {
+        return url != null && inFlight.containsKey(url);
+    }
+
+    /**
+     * Opens the stored copy of the image without reading it into memory, or returns {@code null} if the
+     * image is not in the store.
+     */
+    public InputStream openStored(String url) {
+        String hash = hashByUrl.getIfPresent(url);
+        if (hash == null) {
+            hash = findHash(url);
+        }
+        if (hash == null) {
+            return null;
+        }
+        hashByUrl.put(url, hash);
+        byte[] cached = bytesByHash.getIfPresent(hash);
+        if (cached != null) {
+            return new ByteArrayInputStream(cached);
+        }
+        try {
+            GridFSFile file = gridFs.findOne(Query.query(whereFilename().is(hash)));
+            return file == null ? null : gridFs.getResource(file).getInputStream();
+        } catch (Exception e) {
+            log.warn("Failed to open stored image {}: {}", hash, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the image for the URL from the store, downloading and storing it on first use;
+     * {@code null} when there is no URL or the image cannot be fetched.
+     */
+    public byte[] load(String url) {
+        if (url == null || url.isBlank()) {
+            return null;
+        }
+        String hash = hashByUrl.getIfPresent(url);
+        if (hash == null) {
+            hash = findHash(url);
+        }
+        if (hash != null) {
+            byte[] stored = read(hash);
+            if (stored != null) {
+                hashByUrl.put(url, hash);
+                return stored;
+            }
+        }
+
+        byte[] downloaded = imageService.downloadImage(url);
+        if (downloaded != null) {
+            store(url, downloaded);
+        }
+        return downloaded;
+    }
+
+    /**
+     * Stores the image under the hash of its content and returns that hash. An existing file with the same
+     * content only gets the URL added to its sources.
+     */
+    public String store(String url, byte[] bytes) {
+        String hash = sha256(bytes);
+        hashByUrl.put(url, hash);
+        bytesByHash.put(hash, bytes);
+        try {
+            GridFSFile existing = gridFs.findOne(Query.query(whereFilename().is(hash)));
+            if (existing == null) {
+                insert(hash, url, bytes);
+            } else {
+                addSourceUrl(hash, url);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to persist image {} from {}: {}", hash, url, e.getMessage());
+        }
+        return hash;
+    }
+
+    private void insert(String hash, String url, byte[] bytes) {
+        ObjectId id = new ObjectId();
+        GridFsUpload<ObjectId> upload = GridFsUpload.fromStream(new ByteArrayInputStream(bytes))
+                .id(id)
+                .filename(hash)
+                .contentType(contentType(url))
+                .metadata(new Document(SOURCE_URLS, List.of(url)))
+                .build();
+        try {
+            gridFs.store(upload);
+            log.info("Stored image {} ({} bytes) from {}", hash, bytes.length, url);
+        } catch (RuntimeException e) {
+            if (!isDuplicateKey(e)) {
+                throw e;
+            }
+            // Ту же картинку по другому URL успели сохранить параллельно (уникальный индекс на filename):
+            // наши чанки остались без файла, удаляем их и просто дописываем URL к уже сохранённой копии
+            mongoTemplate.remove(Query.query(where("files_id").is(id)), CHUNKS_COLLECTION);
+            addSourceUrl(hash, url);
+        }
+    }
+
+    private void addSourceUrl(String hash, String url) {
+        mongoTemplate.updateFirst(Query.query(where("filename").is(hash)),
+                new Update().addToSet("metadata." + SOURCE_URLS, url), FILES_COLLECTION);
+    }
+
+    private static boolean isDuplicateKey(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DuplicateKeyException
+                    || cause instanceof MongoWriteException writeException
+                    && writeException.getError().getCategory() == ErrorCategory.DUPLICATE_KEY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String findHash(String url) {
+        try {
+            GridFSFile file = gridFs.findOne(Query.query(whereMetaData(SOURCE_URLS).is(url)));
+            return file == null ? null : file.getFilename();
+        } catch (Exception e) {
+            log.warn("Image store lookup failed for {}: {}", url, e.getMessage());
+            return null;
+        }
+    }
+
+    private byte[] read(String hash) {
+        byte[] cached = bytesByHash.getIfPresent(hash);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            GridFSFile file = gridFs.findOne(Query.query(whereFilename().is(hash)));
+            if (file == null) {
+                return null;
+            }
+            GridFsResource resource = gridFs.getResource(file);
+            try (InputStream in = resource.getInputStream()) {
+                byte[] bytes = in.readAllBytes();
+                bytesByHash.put(hash, bytes);
+                return bytes;
+            }
+        } catch (Exception e) {
+            log.warn("Failed to read image {} from the store: {}", hash, e.getMessage());
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchers.shutdown();
+        try {
+            if (!fetchers.awaitTermination(5, TimeUnit.SECONDS)) {
+                fetchers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            fetchers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String contentType(String url) {
+        String lower = url.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".png")) {
+            return "image/png";
+        }
+        if (lower.endsWith(".webp")) {
+            return "image/webp";
+        }
+        return "image/jpeg";
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
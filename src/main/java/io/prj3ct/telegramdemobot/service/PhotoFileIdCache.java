@@ -0,0 +1,87 @@
+package io.prj3ct.telegramdemobot.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.prj3ct.telegramdemobot.model.TelegramPhoto;
+import io.prj3ct.telegramdemobot.repository.TelegramPhotoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Telegram file_id of each cocktail photo already uploaded by the bot, so later sends reference the file
+ * instead of uploading the bytes again. In-process tier in front of the {@code telegram_photos} collection.
+ */
+@Slf4j
+@Component
+public class PhotoFileIdCache {
+
+    private final TelegramPhotoRepository repository;
+    private final Cache<String, String> localCache;
+    private final Counter reused;
+    private final Counter uploaded;
+
+    public PhotoFileIdCache(TelegramPhotoRepository repository,
+                            MeterRegistry meterRegistry,
+                            @Value("${bot.photos.max-entries:5000}") long maxEntries) {
+        this.repository = repository;
+        this.localCache = Caffeine.newBuilder().maximumSize(maxEntries).build();
+        this.reused = sends(meterRegistry, "file_id");
+        this.uploaded = sends(meterRegistry, "upload");
+    }
+
+    private static Counter sends(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("bot.photos.sent")
+                .description("Cocktail photos sent, by how the photo was supplied")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the stored file_id for the cocktail or {@code null} if its photo was never uploaded.
+     */
+    public String lookup(String cocktailId) {
+        String cached = localCache.getIfPresent(cocktailId);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            String fileId = repository.findById(cocktailId).map(TelegramPhoto::getFileId).orElse(null);
+            if (fileId != null) {
+                localCache.put(cocktailId, fileId);
+            }
+            return fileId;
+        } catch (Exception e) {
+            log.warn("Photo file_id lookup failed for cocktail {}: {}", cocktailId, e.getMessage());
+            return null;
+        }
+    }
+
+    public void remember(String cocktailId, String fileId) {
+        localCache.put(cocktailId, fileId);
+        try {
+            repository.save(new TelegramPhoto(cocktailId, fileId));
+        } catch (Exception e) {
+            log.warn("Failed to persist photo file_id for cocktail {}: {}", cocktailId, e.getMessage());
+        }
+    }
+
+    public void forget(String cocktailId) {
+        localCache.invalidate(cocktailId);
+        try {
+            repository.deleteById(cocktailId);
+        } catch (Exception e) {
+            log.warn("Failed to remove photo file_id for cocktail {}: {}", cocktailId, e.getMessage());
+        }
+    }
+
+    void recordReused() {
+        reused.increment();
+    }
+
+    void recordUploaded() {
+        uploaded.increment();
+    }
+}
@@ -1,41 +1,72 @@
 package io.prj3ct.telegramdemobot.service;
 
 import io.prj3ct.telegramdemobot.config.BotConfig;
+import io.prj3ct.telegramdemobot.config.OutboundConfig;
 import io.prj3ct.telegramdemobot.dto.CocktailDetails;
 import io.prj3ct.telegramdemobot.service.command.CommandDispatcher;
+import io.prj3ct.telegramdemobot.service.outbound.OutboundQueue;
+import io.prj3ct.telegramdemobot.service.update.ChatUpdateExecutor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
 import org.telegram.telegrambots.bots.TelegramLongPollingBot;
 import org.telegram.telegrambots.meta.api.methods.commands.SetMyCommands;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.methods.send.SendPhoto;
 import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
 import org.telegram.telegrambots.meta.api.objects.InputFile;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.PhotoSize;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.api.objects.commands.BotCommand;
 import org.telegram.telegrambots.meta.api.objects.commands.scope.BotCommandScopeDefault;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
 
 import java.io.ByteArrayInputStream;
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
 @Slf4j
 @Component
 public class TelegramBot extends TelegramLongPollingBot {
 
+    private static final int BAD_REQUEST = 400;
+
     private final BotConfig botConfig;
     private final CommandDispatcher commandDispatcher;
+    private final ChatUpdateExecutor updateExecutor;
+    private final OutboundQueue outboundQueue;
+    private final PhotoFileIdCache photoFileIds;
+    private final ImageStore imageStore;
+    private final ImageRelay imageRelay;
 
-    public TelegramBot(BotConfig botConfig, @Lazy CommandDispatcher commandDispatcher) {
-        super(botConfig.getToken());
+    public TelegramBot(BotConfig botConfig, @Lazy CommandDispatcher commandDispatcher, ChatUpdateExecutor updateExecutor,
+                       OutboundQueue outboundQueue, OutboundConfig outboundConfig, PhotoFileIdCache photoFileIds, ImageStore imageStore, ImageRelay imageRelay) {
+        super(botOptions(outboundConfig), botConfig.getToken());
         this.botConfig = botConfig;
         this.commandDispatcher = commandDispatcher;
+        this.updateExecutor = updateExecutor;
+        this.outboundQueue = outboundQueue;
+        this.photoFileIds = photoFileIds;
+        this.imageStore = imageStore;
+        this.imageRelay = imageRelay;
         setBotCommands();
     }
 
+    private static DefaultBotOptions botOptions(OutboundConfig outboundConfig) {
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setMaxThreads(Math.max(1, outboundConfig.getSenderThreads()));
+        return options;
+    }
+
     @Override
     public String getBotUsername() {
         return botConfig.getName();
@@ -43,13 +74,15 @@ public class TelegramBot extends TelegramLongPollingBot {
 
     @Override
     public void onUpdateReceived(Update update) {
-        commandDispatcher.dispatch(update);
+        updateExecutor.submit(update, commandDispatcher::dispatch);
     }
+
     private void setBotCommands() {
         List<BotCommand> commands = new ArrayList<>();
         commands.add(new BotCommand("/start", "начать работу с ботом"));
         commands.add(new BotCommand("/search", "поиск коктейля по названию"));
         commands.add(new BotCommand("/ingredients","список доступных ингридиентов"));
+        commands.add(new BotCommand("/canmake", "что приготовить из того, что есть"));
         try{
             this.execute(new SetMyCommands(commands, new BotCommandScopeDefault(),null));
         } catch (TelegramApiException e) {
@@ -57,60 +90,117 @@ public class TelegramBot extends TelegramLongPollingBot {
         }
     }
 
-    public void sendCocktailDetails(long chatId, CocktailDetails details) {
+    public CompletableFuture<Message> sendCocktailDetails(long chatId, CocktailDetails details) {
         String recipe = "Название: " + details.getName() + "\n\n" +
                 "Ингредиенты:\n" + String.join("\n", details.getIngredients()) + "\n\n" +
                 "Инструкция:\n" + details.getInstructions();
 
-        if (details.getImage() != null && details.getImage().length > 0) {
-            SendPhoto sendPhoto = new SendPhoto();
-            sendPhoto.setChatId(String.valueOf(chatId));
-            sendPhoto.setPhoto(new InputFile(new ByteArrayInputStream(details.getImage()), "photo.jpg"));
-            sendPhoto.setCaption(recipe);
-
-            try {
-                execute(sendPhoto);
-            } catch (TelegramApiException e) {
-                log.error("Failed to send photo for cocktail ID {}: {}", details.getId(), e.getMessage());
-                sendMessage(chatId, recipe);
+        // Фото, которое бот уже загружал, отправляется по file_id без повторной загрузки байтов
+        String fileId = photoFileIds.lookup(details.getId());
+        if (fileId != null) {
+            return sendPhoto(chatId, recipe, () -> new InputFile(fileId))
+                    .thenApply(sent -> {
+                        photoFileIds.recordReused();
+                        return sent;
+                    })
+                    .exceptionallyCompose(e -> {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        if (cause instanceof TelegramApiRequestException requestException
+                                && requestException.getErrorCode() != null && requestException.getErrorCode() == BAD_REQUEST) {
+                            log.warn("Telegram rejected stored file_id for cocktail ID {}, uploading the photo again", details.getId());
+                            photoFileIds.forget(details.getId());
+                        }
+                        return uploadPhoto(chatId, details, recipe);
+                    });
+        }
+        return uploadPhoto(chatId, details, recipe);
+    }
+
+    private CompletableFuture<Message> uploadPhoto(long chatId, CocktailDetails details, String recipe) {
+        String imageUrl = details.getImageUrl();
+        if (imageUrl == null || imageUrl.isBlank()) {
+            return sendMessage(chatId, recipe);
+        }
+        // InputFile со стримом одноразовый, поэтому при повторе после 429 создаём его заново
+        Supplier<InputFile> photo;
+        if (imageStore.isFetching(imageUrl)) {
+            // Картинка уже качается (её запустила загрузка рецепта): ждём её не дольше таймаута, чтобы не качать второй раз
+            byte[] image = imageStore.loadWithinTimeout(imageUrl);
+            if (image == null || image.length == 0) {
+                return sendMessage(chatId, recipe);
             }
+            photo = () -> new InputFile(new ByteArrayInputStream(image), "photo.jpg");
         } else {
-            sendMessage(chatId, recipe);
+            photo = () -> new InputFile(imageRelay.open(imageUrl), "photo.jpg");
+        }
+        return sendPhoto(chatId, recipe, photo)
+                .thenApply(sent -> {
+                    photoFileIds.recordUploaded();
+                    rememberFileId(details.getId(), sent);
+                    return sent;
+                })
+                .exceptionallyCompose(e -> {
+                    log.error("Failed to send photo for cocktail ID {}: {}", details.getId(), e.getMessage());
+                    return sendMessage(chatId, recipe);
+                });
+    }
+
+    private CompletableFuture<Message> sendPhoto(long chatId, String caption, Supplier<InputFile> photo) {
+        SendPhoto sendPhoto = new SendPhoto();
+        sendPhoto.setChatId(String.valueOf(chatId));
+        sendPhoto.setCaption(caption);
+        return outboundQueue.submit(chatId, () -> {
+            sendPhoto.setPhoto(photo.get());
+            return executeAsync(sendPhoto);
+        });
+    }
+
+    private void rememberFileId(String cocktailId, Message sent) {
+        if (sent == null || sent.getPhoto() == null) {
+            return;
         }
+        sent.getPhoto().stream()
+                .max(Comparator.comparingLong(size -> (long) size.getWidth() * size.getHeight()))
+                .map(PhotoSize::getFileId)
+                .ifPresent(fileId -> photoFileIds.remember(cocktailId, fileId));
     }
 
-    public void sendMessage(long chatId, String textToSend) {
+    public CompletableFuture<Message> sendMessage(long chatId, String textToSend) {
         SendMessage message = new SendMessage();
         message.setChatId(String.valueOf(chatId));
         message.setText(textToSend);
-        try {
-            execute(message);
-        } catch (TelegramApiException e) {
-            log.error("Error occurred: {}", e.getMessage());
-        }
+        return outboundQueue.submit(chatId, () -> executeAsync(message))
+                .whenComplete((sent, e) -> {
+                    if (e != null) {
+                        log.error("Error occurred: {}", e.getMessage());
+                    }
+                });
     }
-    public void sendMessage(long chatId, String text, InlineKeyboardMarkup keyboard) {
+
+    public CompletableFuture<Message> sendMessage(long chatId, String text, InlineKeyboardMarkup keyboard) {
         SendMessage message = new SendMessage();
         message.setChatId(String.valueOf(chatId));
         message.setText(text);
         message.setReplyMarkup(keyboard);
-        try {
-            execute(message);
-        } catch (TelegramApiException e) {
-            log.error("Error sending message with keyboard: {}", e.getMessage());
-        }
+        return outboundQueue.submit(chatId, () -> executeAsync(message))
+                .whenComplete((sent, e) -> {
+                    if (e != null) {
+                        log.error("Error sending message with keyboard: {}", e.getMessage());
+                    }
+                });
     }
 
-    public void editMessage(long chatId, int messageId, String text, InlineKeyboardMarkup keyboard) {
+    public CompletableFuture<Serializable> editMessage(long chatId, int messageId, String text, InlineKeyboardMarkup keyboard) {
         EditMessageText editMessage = new EditMessageText();
         editMessage.setChatId(String.valueOf(chatId));
         editMessage.setMessageId(messageId);
         editMessage.setText(text);
         editMessage.setReplyMarkup(keyboard);
-        try {
-            execute(editMessage);
-        } catch (TelegramApiException e) {
-            log.error("Error editing message: {}", e.getMessage());
-        }
+        return outboundQueue.submit(chatId, () -> executeAsync(editMessage))
+                .whenComplete((edited, e) -> {
+                    if (e != null) {
+                        log.error("Error editing message: {}", e.getMessage());
+                    }
+                });
     }
 }
@@ -0,0 +1,48 @@
+package io.prj3ct.telegramdemobot.service;
+
+import io.prj3ct.telegramdemobot.config.BotConfig;
+import io.prj3ct.telegramdemobot.config.WebhookConfig;
+import io.prj3ct.telegramdemobot.service.command.CommandDispatcher;
+import io.prj3ct.telegramdemobot.service.update.ChatUpdateExecutor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.bots.TelegramWebhookBot;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+@Component
+@ConditionalOnProperty(name = "bot.mode", havingValue = "webhook")
+public class TelegramWebhookReceiver extends TelegramWebhookBot {
+
+    private final BotConfig botConfig;
+    private final WebhookConfig webhookConfig;
+    private final CommandDispatcher commandDispatcher;
+    private final ChatUpdateExecutor updateExecutor;
+
+    public TelegramWebhookReceiver(BotConfig botConfig, WebhookConfig webhookConfig,
+                                   @Lazy CommandDispatcher commandDispatcher, ChatUpdateExecutor updateExecutor) {
+        super(botConfig.getToken());
+        this.botConfig = botConfig;
+        this.webhookConfig = webhookConfig;
+        this.commandDispatcher = commandDispatcher;
+        this.updateExecutor = updateExecutor;
+    }
+
+    @Override
+    public String getBotUsername() {
+        return botConfig.getName();
+    }
+
+    @Override
+    public String getBotPath() {
+        return webhookConfig.getPath();
+    }
+
+    @Override
+    public BotApiMethod<?> onWebhookUpdateReceived(Update update) {
+        // Ответ уходит в Telegram сразу, сама обработка выполняется воркерами
+        updateExecutor.submit(update, commandDispatcher::dispatch);
+        return null;
+    }
+}
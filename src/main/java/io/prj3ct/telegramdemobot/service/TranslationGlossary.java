@@ -0,0 +1,84 @@
+package io.prj3ct.telegramdemobot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.prj3ct.telegramdemobot.dto.GlossaryDocument;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Offline dictionary of the closed vocabulary we translate most (ingredient names), bundled with the
+ * application and loaded once at startup. It works in both directions of the language pair it is built for.
+ */
+@Slf4j
+@Component
+public class TranslationGlossary {
+
+    private final GlossaryDocument document;
+    private final Map<String, String> forward;
+    private final Map<String, String> backward;
+
+    public TranslationGlossary(ObjectMapper objectMapper,
+                               @Value("${translation.glossary.location:classpath:glossary/en-ru.json}") Resource location) {
+        this.document = load(objectMapper, location);
+        Map<String, String> forwardEntries = new HashMap<>();
+        Map<String, String> backwardEntries = new HashMap<>();
+        document.getEntries().forEach((text, translation) -> {
+            forwardEntries.putIfAbsent(normalize(text), translation);
+            backwardEntries.putIfAbsent(normalize(translation), text);
+        });
+        this.forward = Map.copyOf(forwardEntries);
+        this.backward = Map.copyOf(backwardEntries);
+        log.info("Loaded translation glossary v{} ({} -> {}) with {} entries",
+                document.getVersion(), document.getSource(), document.getTarget(), forward.size());
+    }
+
+    private static GlossaryDocument load(ObjectMapper objectMapper, Resource location) {
+        if (!location.exists()) {
+            log.warn("Translation glossary {} not found, continuing without it", location);
+            return new GlossaryDocument(0, "en", "ru", Collections.emptyMap());
+        }
+        try (InputStream in = location.getInputStream()) {
+            GlossaryDocument loaded = objectMapper.readValue(in, GlossaryDocument.class);
+            if (loaded.getEntries() == null) {
+                loaded.setEntries(Collections.emptyMap());
+            }
+            return loaded;
+        } catch (IOException e) {
+            log.error("Failed to read translation glossary {}, continuing without it", location, e);
+            return new GlossaryDocument(0, "en", "ru", Collections.emptyMap());
+        }
+    }
+
+    /**
+     * Returns the glossary translation or {@code null} when the text or the language pair is not covered.
+     */
+    public String lookup(String text, String sourceLang, String targetLang) {
+        if (text == null) {
+            return null;
+        }
+        if (document.getSource().equals(sourceLang) && document.getTarget().equals(targetLang)) {
+            return forward.get(normalize(text));
+        }
+        if (document.getTarget().equals(sourceLang) && document.getSource().equals(targetLang)) {
+            return backward.get(normalize(text));
+        }
+        return null;
+    }
+
+    public GlossaryDocument getDocument() {
+        return document;
+    }
+
+    private static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT).replace('ё', 'е');
+    }
+}
@@ -0,0 +1,129 @@
+package io.prj3ct.telegramdemobot.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.prj3ct.telegramdemobot.model.TranslationMemoryEntry;
+import io.prj3ct.telegramdemobot.repository.TranslationMemoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers every successful translation keyed by (text, source, target): a bounded in-process tier
+ * in front of the {@code translation_memory} collection, so a string is sent to LibreTranslate only once.
+ */
+@Slf4j
+@Component
+public class TranslationMemory {
+
+    private final TranslationMemoryRepository repository;
+    private final Cache<Key, String> localCache;
+    private final Counter localHits;
+    private final Counter storeHits;
+    private final Counter misses;
+
+    private record Key(String text, String source, String target) {
+    }
+
+    public TranslationMemory(TranslationMemoryRepository repository,
+                             MeterRegistry meterRegistry,
+                             @Value("${translation.memory.max-entries:20000}") long maxEntries) {
+        this.repository = repository;
+        this.localCache = Caffeine.newBuilder().maximumSize(maxEntries).build();
+        this.localHits = requests(meterRegistry, "local");
+        this.storeHits = requests(meterRegistry, "mongo");
+        this.misses = requests(meterRegistry, "miss");
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("translation.memory.requests")
+                .description("Translation memory lookups by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public String lookup(String text, String source, String target) {
+        return lookupAll(List.of(text), source, target).get(text);
+    }
+
+    /**
+     * Returns the remembered translations for the given texts; texts that were never translated are absent from the map.
+     */
+    public Map<String, String> lookupAll(Collection<String> texts, String source, String target) {
+        Map<String, String> found = new HashMap<>();
+        Map<String, String> idsToLoad = new HashMap<>();
+        for (String text : texts) {
+            String cached = localCache.getIfPresent(new Key(text, source, target));
+            if (cached != null) {
+                found.put(text, cached);
+                localHits.increment();
+            } else {
+                idsToLoad.put(id(text, source, target), text);
+            }
+        }
+        if (idsToLoad.isEmpty()) {
+            return found;
+        }
+
+        try {
+            for (TranslationMemoryEntry entry : repository.findAllById(idsToLoad.keySet())) {
+                String text = idsToLoad.get(entry.getId());
+                if (text != null && text.equals(entry.getText())) {
+                    found.put(text, entry.getTranslation());
+                    localCache.put(new Key(text, source, target), entry.getTranslation());
+                    storeHits.increment();
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Translation memory lookup failed, treating {} texts as misses: {}", idsToLoad.size(), e.getMessage());
+        }
+        misses.increment(texts.size() - found.size());
+        return found;
+    }
+
+    public void remember(String text, String source, String target, String translation) {
+        rememberAll(Map.of(text, translation), source, target);
+    }
+
+    public void rememberAll(Map<String, String> translations, String source, String target) {
+        if (translations.isEmpty()) {
+            return;
+        }
+        List<TranslationMemoryEntry> entries = new ArrayList<>(translations.size());
+        translations.forEach((text, translation) -> {
+            localCache.put(new Key(text, source, target), translation);
+            entries.add(new TranslationMemoryEntry(id(text, source, target), text, source, target, translation));
+        });
+        try {
+            repository.saveAll(entries);
+        } catch (Exception e) {
+            log.warn("Failed to persist {} translations: {}", entries.size(), e.getMessage());
+        }
+    }
+
+    private static String id(String text, String source, String target) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(source.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(target.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -1,20 +1,53 @@
 package io.prj3ct.telegramdemobot.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.prj3ct.telegramdemobot.config.TranslationConfig;
+import io.prj3ct.telegramdemobot.service.resilience.CircuitBreaker;
 import lombok.Data;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class TranslationService {
 
     private final TranslationConfig config;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final TranslationMemory translationMemory;
+    private final TranslationGlossary glossary;
+    private final RestTemplate restTemplate;
+    private final CircuitBreaker circuitBreaker;
+    private final Counter shortCircuited;
+
+    public TranslationService(TranslationConfig config,
+                              TranslationMemory translationMemory,
+                              TranslationGlossary glossary,
+                              @Qualifier("translationRestTemplate") RestTemplate restTemplate,
+                              MeterRegistry meterRegistry) {
+        this.config = config;
+        this.translationMemory = translationMemory;
+        this.glossary = glossary;
+        this.restTemplate = restTemplate;
+        this.circuitBreaker = new CircuitBreaker("libretranslate", config.getCircuitFailureThreshold(), config.getCircuitOpenDuration());
+        Gauge.builder("translation.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("LibreTranslate circuit state: 0 closed, 1 half-open, 2 open")
+                .register(meterRegistry);
+        this.shortCircuited = Counter.builder("translation.circuit.rejected")
+                .description("Translations skipped because the circuit was open")
+                .register(meterRegistry);
+    }
 
     @Data
     private static class TranslationRequest {
@@ -30,6 +63,20 @@ public class TranslationService {
         }
     }
 
+    @Data
+    private static class BatchTranslationRequest {
+        private List<String> q;
+        private String source;
+        private String target;
+        private final String format = "text";
+
+        BatchTranslationRequest(List<String> q, String source, String target) {
+            this.q = q;
+            this.source = source;
+            this.target = target;
+        }
+    }
+
     public String translate(String textToTranslate, String targetLang) {
         // LibreTranslate умеет автоматически определять исходный язык
         return translate(textToTranslate, "auto", targetLang);
@@ -41,11 +88,36 @@ public class TranslationService {
             return textToTranslate;
         }
 
+        String known = glossary.lookup(textToTranslate, sourceLang, targetLang);
+        if (known != null) {
+            return known;
+        }
+
+        String remembered = translationMemory.lookup(textToTranslate, sourceLang, targetLang);
+        if (remembered != null) {
+            return remembered;
+        }
+
+        if (!circuitBreaker.tryAcquire()) {
+            shortCircuited.increment();
+            log.debug("LibreTranslate circuit is open, returning untranslated text");
+            return textToTranslate;
+        }
+        String translated = requestTranslation(textToTranslate, sourceLang, targetLang);
+        if (translated == null) {
+            return textToTranslate; // В случае ошибки возвращаем исходный текст
+        }
+        translationMemory.remember(textToTranslate, sourceLang, targetLang, translated);
+        return translated;
+    }
+
+    private String requestTranslation(String textToTranslate, String sourceLang, String targetLang) {
         try {
             TranslationRequest request = new TranslationRequest(textToTranslate, sourceLang, targetLang);
 
             // Отправляем POST-запрос на локальный сервер LibreTranslate
             JsonNode response = restTemplate.postForObject(config.getUrl(), request, JsonNode.class);
+            circuitBreaker.onSuccess();
 
             if (response != null && response.has("translatedText")) {
                 String translated = response.get("translatedText").asText();
@@ -53,15 +125,136 @@ public class TranslationService {
                 return translated;
             } else if (response != null && response.has("error")) {
                 log.error("Error from LibreTranslate API: {}", response.get("error").asText());
-                return textToTranslate; // В случае ошибки возвращаем исходный текст
+                return null;
             } else {
                 log.error("Unexpected response from LibreTranslate API: {}", response);
-                return textToTranslate; // В случае странного ответа возвращаем исходный текст
+                return null;
             }
 
         } catch (Exception e) {
-            log.error("Failed to call LibreTranslate API for text: '{}'", textToTranslate, e);
-            return textToTranslate; // В случае исключения возвращаем исходный текст
+            circuitBreaker.onFailure();
+            log.error("Failed to call LibreTranslate API for text: '{}': {}", textToTranslate, e.getMessage());
+            return null;
         }
     }
+
+    /**
+     * Translates all texts with as few requests as possible. The result has the same size and order as the input;
+     * empty entries are returned as is, and entries of a batch that failed are translated one by one.
+     */
+    public List<String> translateAll(List<String> texts, String sourceLang, String targetLang) {
+        List<String> result = new ArrayList<>(texts);
+        if (!config.isEnabled() || texts.isEmpty()) {
+            return result;
+        }
+
+        Map<String, String> translations = new HashMap<>();
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String text : texts) {
+            if (text == null || text.isBlank()) {
+                continue;
+            }
+            String known = glossary.lookup(text, sourceLang, targetLang);
+            if (known != null) {
+                translations.put(text, known);
+            } else {
+                distinct.add(text);
+            }
+        }
+        translations.putAll(translationMemory.lookupAll(distinct, sourceLang, targetLang));
+
+        List<String> chunk = new ArrayList<>();
+        int chunkChars = 0;
+        for (String text : distinct) {
+            if (translations.containsKey(text)) {
+                continue;
+            }
+            boolean chunkFull = chunk.size() >= config.getBatchMaxItems()
+                    || (!chunk.isEmpty() && chunkChars + text.length() > config.getBatchMaxChars());
+            if (chunkFull) {
+                translateChunk(chunk, translations, sourceLang, targetLang);
+                chunk = new ArrayList<>();
+                chunkChars = 0;
+            }
+            chunk.add(text);
+            chunkChars += text.length();
+        }
+        if (!chunk.isEmpty()) {
+            translateChunk(chunk, translations, sourceLang, targetLang);
+        }
+
+        for (int i = 0; i < result.size(); i++) {
+            String translated = translations.get(result.get(i));
+            if (translated != null) {
+                result.set(i, translated);
+            }
+        }
+        return result;
+    }
+
+    private void translateChunk(List<String> chunk, Map<String, String> translations, String sourceLang, String targetLang) {
+        if (!circuitBreaker.tryAcquire()) {
+            shortCircuited.increment(chunk.size());
+            log.debug("LibreTranslate circuit is open, leaving {} texts untranslated", chunk.size());
+            return;
+        }
+        try {
+            JsonNode response = restTemplate.postForObject(config.getUrl(),
+                    new BatchTranslationRequest(chunk, sourceLang, targetLang), JsonNode.class);
+            circuitBreaker.onSuccess();
+            JsonNode translated = response != null ? response.get("translatedText") : null;
+            if (translated != null && translated.isArray() && translated.size() == chunk.size()) {
+                Map<String, String> chunkTranslations = new HashMap<>();
+                for (int i = 0; i < chunk.size(); i++) {
+                    JsonNode item = translated.get(i);
+                    if (item != null && item.isTextual()) {
+                        chunkTranslations.put(chunk.get(i), item.asText());
+                    }
+                }
+                translationMemory.rememberAll(chunkTranslations, sourceLang, targetLang);
+                translations.putAll(chunkTranslations);
+                log.info("Translated batch of {} texts", chunk.size());
+                for (String text : chunk) {
+                    if (!chunkTranslations.containsKey(text)) {
+                        translations.put(text, translate(text, sourceLang, targetLang));
+                    }
+                }
+                return;
+            }
+            log.warn("Unexpected batch response from LibreTranslate API, translating {} texts one by one: {}", chunk.size(), response);
+        } catch (Exception e) {
+            circuitBreaker.onFailure();
+            // Поштучный перевод имеет смысл только при кривом ответе. Если сервис не ответил (таймаут, обрыв,
+            // HTTP-ошибка), chunk.size() одиночных запросов упрутся в ту же проблему и лишь добьют его
+            if (!isUnreadableResponse(e)) {
+                log.warn("Batch translation of {} texts failed, leaving them untranslated: {}", chunk.size(), e.getMessage());
+                return;
+            }
+            log.warn("Unreadable batch response from LibreTranslate API, translating {} texts one by one: {}", chunk.size(), e.getMessage());
+        }
+        if (!circuitBreaker.isCallPermitted()) {
+            shortCircuited.increment(chunk.size());
+            log.debug("LibreTranslate circuit opened, leaving {} texts untranslated", chunk.size());
+            return;
+        }
+        for (String text : chunk) {
+            translations.put(text, translate(text, sourceLang, targetLang));
+        }
+    }
+
+    private static boolean isUnreadableResponse(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpMessageNotReadableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@code false} while LibreTranslate is considered down; untranslated data is cached as such and re-translated later.
+     */
+    public boolean isAvailable() {
+        return config.isEnabled() && circuitBreaker.isCallPermitted();
+    }
 }
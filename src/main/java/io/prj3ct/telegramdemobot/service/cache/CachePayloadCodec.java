@@ -0,0 +1,45 @@
+package io.prj3ct.telegramdemobot.service.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.prj3ct.telegramdemobot.dto.Cocktail;
+import io.prj3ct.telegramdemobot.dto.CocktailDetails;
+import io.prj3ct.telegramdemobot.model.CocktailCache;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Extracts the payload of a {@link CocktailCache} document, whether it is stored in the typed BSON fields
+ * or, for documents not migrated yet, as a Jackson JSON string.
+ */
+@Component
+public class CachePayloadCodec {
+
+    private final ObjectMapper objectMapper;
+
+    public CachePayloadCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T read(CocktailCache cache, CocktailCache.CacheType type) throws JsonProcessingException {
+        if (cache.effectiveSchemaVersion() >= CocktailCache.CURRENT_SCHEMA_VERSION) {
+            return (T) switch (type) {
+                case INGREDIENT_SEARCH -> cache.getCocktails();
+                case COCKTAIL_DETAILS -> cache.getDetails();
+                case INGREDIENTS_LIST -> cache.getIngredients();
+            };
+        }
+        return (T) readLegacy(cache.getResponseJson(), type);
+    }
+
+    public Object readLegacy(String json, CocktailCache.CacheType type) throws JsonProcessingException {
+        return switch (type) {
+            case INGREDIENT_SEARCH -> objectMapper.readValue(json, new TypeReference<List<Cocktail>>() {});
+            case COCKTAIL_DETAILS -> objectMapper.readValue(json, CocktailDetails.class);
+            case INGREDIENTS_LIST -> objectMapper.readValue(json, new TypeReference<List<String>>() {});
+        };
+    }
+}
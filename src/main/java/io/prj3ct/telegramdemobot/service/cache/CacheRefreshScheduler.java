@@ -0,0 +1,114 @@
+package io.prj3ct.telegramdemobot.service.cache;
+
+import io.prj3ct.telegramdemobot.model.CocktailCache;
+import io.prj3ct.telegramdemobot.repository.CocktailCacheRepository;
+import io.prj3ct.telegramdemobot.service.CocktailDBService;
+import io.prj3ct.telegramdemobot.service.TranslationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Background upkeep of cocktail_cache: refreshes entries that were served stale and translates entries that were
+ * cached while LibreTranslate was down. Entries nobody reads are not refreshed; the expiresAt TTL index removes them.
+ */
+@Slf4j
+@Component
+public class CacheRefreshScheduler {
+
+    private final CocktailDBService cocktailDBService;
+    private final CocktailCacheRepository cocktailCacheRepository;
+    private final TranslationService translationService;
+    private final StaleEntryQueue staleEntries;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final Duration retranslateBackoff;
+
+    public CacheRefreshScheduler(CocktailDBService cocktailDBService,
+                                 CocktailCacheRepository cocktailCacheRepository,
+                                 TranslationService translationService,
+                                 StaleEntryQueue staleEntries,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${cache.refresh.batch-size:50}") int batchSize,
+                                 @Value("${cache.refresh.retranslate-backoff:1h}") Duration retranslateBackoff) {
+        this.cocktailDBService = cocktailDBService;
+        this.cocktailCacheRepository = cocktailCacheRepository;
+        this.translationService = translationService;
+        this.staleEntries = staleEntries;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.retranslateBackoff = retranslateBackoff;
+        meterRegistry.gauge("cache.refresh.queued", staleEntries, StaleEntryQueue::size);
+        meterRegistry.gauge("cache.retranslate.queued", staleEntries, StaleEntryQueue::untranslatedSize);
+    }
+
+    @Scheduled(initialDelayString = "${cache.refresh.initial-delay:60s}", fixedDelayString = "${cache.refresh.interval:60s}")
+    public void run() {
+        try {
+            refreshQueued();
+            if (translationService.isAvailable()) {
+                retranslate();
+            }
+        } catch (Exception e) {
+            log.error("Cache refresh run failed", e);
+        }
+    }
+
+    private void refreshQueued() {
+        List<StaleEntryQueue.StaleEntry> queued = staleEntries.drain(batchSize);
+        for (StaleEntryQueue.StaleEntry entry : queued) {
+            refresh(entry.type(), entry.requestKey());
+        }
+        if (!queued.isEmpty()) {
+            log.info("Refreshed {} cache entries served stale", queued.size());
+        }
+    }
+
+    private void retranslate() {
+        Instant attemptedBefore = Instant.now().minus(retranslateBackoff);
+        // Сначала то, что пользователи только что получили непереведённым
+        for (StaleEntryQueue.StaleEntry entry : staleEntries.drainUntranslated(batchSize)) {
+            if (!translationService.isAvailable()) {
+                staleEntries.addUntranslated(entry.type(), entry.requestKey());
+                continue;
+            }
+            retranslate(entry.type(), entry.requestKey(), attemptedBefore);
+        }
+        for (CocktailCache.CacheType type : CocktailCache.CacheType.values()) {
+            List<String> keys = cocktailCacheRepository.findUntranslatedKeys(type, attemptedBefore, batchSize);
+            for (String key : keys) {
+                // Если переводчик снова упал, остальное подождёт следующего запуска
+                if (!translationService.isAvailable()) {
+                    return;
+                }
+                retranslate(type, key, attemptedBefore);
+            }
+        }
+    }
+
+    private void retranslate(CocktailCache.CacheType type, String key, Instant attemptedBefore) {
+        try {
+            if (cocktailDBService.retranslate(type, key, attemptedBefore)) {
+                meterRegistry.counter("cache.refresh.retranslated", "type", type.name()).increment();
+            }
+        } catch (Exception e) {
+            log.warn("Failed to re-translate {} cache entry '{}'", type, key, e);
+        }
+    }
+
+    private void refresh(CocktailCache.CacheType type, String key) {
+        try {
+            cocktailDBService.refresh(type, key);
+            meterRegistry.counter("cache.refresh.refreshed", "type", type.name()).increment();
+        } catch (Exception e) {
+            meterRegistry.counter("cache.refresh.failed", "type", type.name()).increment();
+            log.warn("Failed to refresh {} cache entry '{}'", type, key, e);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package io.prj3ct.telegramdemobot.service.cache;
+
+import io.prj3ct.telegramdemobot.model.CocktailCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Rewrites cache documents stored in the legacy format (payload as a JSON string) into typed BSON fields.
+ * Runs once in the background after startup; documents are read in {@code _id} order and migrated in batches.
+ */
+@Slf4j
+@Component
+public class CacheSchemaMigration {
+
+    private final MongoTemplate mongoTemplate;
+    private final CachePayloadCodec cachePayloadCodec;
+    private final TaskExecutor taskExecutor;
+    private final int batchSize;
+
+    public CacheSchemaMigration(MongoTemplate mongoTemplate,
+                                CachePayloadCodec cachePayloadCodec,
+                                @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                                @Value("${cache.migration.batch-size:200}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.cachePayloadCodec = cachePayloadCodec;
+        this.taskExecutor = taskExecutor;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startMigration() {
+        taskExecutor.execute(this::migrate);
+    }
+
+    void migrate() {
+        String lastId = null;
+        int migrated = 0;
+        int dropped = 0;
+        try {
+            while (true) {
+                Criteria criteria = Criteria.where("responseJson").exists(true)
+                        .orOperator(Criteria.where("schemaVersion").exists(false),
+                                Criteria.where("schemaVersion").lt(CocktailCache.CURRENT_SCHEMA_VERSION));
+                if (lastId != null) {
+                    criteria = new Criteria().andOperator(criteria, Criteria.where("_id").gt(lastId));
+                }
+                Query query = Query.query(criteria).with(Sort.by("_id")).limit(batchSize);
+                query.fields().include("_id", "type", "responseJson");
+                List<CocktailCache> batch = mongoTemplate.find(query, CocktailCache.class);
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                for (CocktailCache cache : batch) {
+                    lastId = cache.getId();
+                    Query byId = Query.query(Criteria.where("_id").is(cache.getId()));
+                    try {
+                        Object payload = cachePayloadCodec.readLegacy(cache.getResponseJson(), cache.getType());
+                        mongoTemplate.updateFirst(byId, new Update()
+                                .set(CocktailCache.payloadField(cache.getType()), payload)
+                                .set("schemaVersion", CocktailCache.CURRENT_SCHEMA_VERSION)
+                                .unset("responseJson"), CocktailCache.class);
+                        migrated++;
+                    } catch (Exception e) {
+                        // Нечитаемая запись всё равно была бы перезапрошена из API при следующем обращении
+                        log.warn("Dropping unreadable cache document {} ({}): {}", cache.getId(), cache.getType(), e.getMessage());
+                        mongoTemplate.remove(byId, CocktailCache.class);
+                        dropped++;
+                    }
+                }
+            }
+            if (migrated > 0 || dropped > 0) {
+                log.info("Cache schema migration finished: {} documents migrated, {} dropped", migrated, dropped);
+            }
+        } catch (Exception e) {
+            log.error("Cache schema migration stopped after {} documents", migrated, e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package io.prj3ct.telegramdemobot.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.prj3ct.telegramdemobot.config.L1CacheConfig;
+import io.prj3ct.telegramdemobot.dto.Cocktail;
+import io.prj3ct.telegramdemobot.dto.CocktailDetails;
+import io.prj3ct.telegramdemobot.model.CocktailCache;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-process tier in front of the {@code cocktail_cache} collection. Holds already deserialized DTOs per
+ * {@link CocktailCache.CacheType}, each type with its own size bound (W-TinyLFU eviction) and time to live.
+ * The DTOs are mutable and get translated in place, so entries hold private copies and every read hands out a new one.
+ */
+@Component
+public class CocktailL1Cache {
+
+    public record Entry<T>(T value, boolean translated) {
+    }
+
+    private final Map<CocktailCache.CacheType, Cache<String, Entry<?>>> caches = new EnumMap<>(CocktailCache.CacheType.class);
+
+    public CocktailL1Cache(L1CacheConfig config, MeterRegistry meterRegistry) {
+        for (CocktailCache.CacheType type : CocktailCache.CacheType.values()) {
+            L1CacheConfig.Tier tier = config.forType(type);
+            Cache<String, Entry<?>> cache = Caffeine.newBuilder()
+                    .maximumSize(tier.getMaxSize())
+                    .expireAfterWrite(tier.getTtl())
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "cocktail-l1-" + type.name().toLowerCase(Locale.ROOT).replace('_', '-'));
+            caches.put(type, cache);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Entry<T> get(CocktailCache.CacheType type, String key) {
+        Entry<?> entry = caches.get(type).getIfPresent(key);
+        return entry == null ? null : new Entry<>((T) copy(entry.value()), entry.translated());
+    }
+
+    public void put(CocktailCache.CacheType type, String key, Object value, boolean translated) {
+        caches.get(type).put(key, new Entry<>(copy(value), translated));
+    }
+
+    public void invalidate(CocktailCache.CacheType type, String key) {
+        caches.get(type).invalidate(key);
+    }
+
+    private static Object copy(Object value) {
+        if (value instanceof List<?> list) {
+            return list.stream().map(CocktailL1Cache::copy).toList();
+        }
+        if (value instanceof CocktailDetails details) {
+            CocktailDetails copy = new CocktailDetails();
+            copy.setId(details.getId());
+            copy.setName(details.getName());
+            copy.setImageUrl(details.getImageUrl());
+            copy.setInstructions(details.getInstructions());
+            copy.setIngredients(details.getIngredients() == null ? null : List.copyOf(details.getIngredients()));
+            copy.setSourceIngredients(details.getSourceIngredients() == null ? null : List.copyOf(details.getSourceIngredients()));
+            return copy;
+        }
+        if (value instanceof Cocktail cocktail) {
+            Cocktail copy = new Cocktail();
+            copy.setId(cocktail.getId());
+            copy.setName(cocktail.getName());
+            return copy;
+        }
+        // Строки неизменяемы
+        return value;
+    }
+}
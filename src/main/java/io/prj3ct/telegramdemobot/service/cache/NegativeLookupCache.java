@@ -0,0 +1,57 @@
+package io.prj3ct.telegramdemobot.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.prj3ct.telegramdemobot.config.NegativeCacheConfig;
+import io.prj3ct.telegramdemobot.model.CocktailCache;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers lookups that produced nothing, either because CocktailDB has no match or because the call failed,
+ * so that repeating them does not hit the translator or the API again until the entry expires.
+ */
+@Component
+public class NegativeLookupCache {
+
+    public enum Reason {
+        EMPTY,
+        FAILED
+    }
+
+    private record Key(CocktailCache.CacheType type, String requestKey) {
+    }
+
+    private final Cache<Key, Reason> cache;
+    private final MeterRegistry meterRegistry;
+
+    public NegativeLookupCache(NegativeCacheConfig config, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfter(Expiry.<Key, Reason>writing((key, reason) ->
+                        reason == Reason.EMPTY ? config.getEmptyTtl() : config.getFailureTtl()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "cocktail-negative");
+    }
+
+    public boolean contains(CocktailCache.CacheType type, String requestKey) {
+        return cache.getIfPresent(new Key(type, requestKey)) != null;
+    }
+
+    public void recordEmpty(CocktailCache.CacheType type, String requestKey) {
+        record(type, requestKey, Reason.EMPTY);
+    }
+
+    public void recordFailure(CocktailCache.CacheType type, String requestKey) {
+        record(type, requestKey, Reason.FAILED);
+    }
+
+    private void record(CocktailCache.CacheType type, String requestKey, Reason reason) {
+        cache.put(new Key(type, requestKey), reason);
+        meterRegistry.counter("cache.negative.recorded", "type", type.name(), "reason", reason.name()).increment();
+    }
+}
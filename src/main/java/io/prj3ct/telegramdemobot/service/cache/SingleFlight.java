@@ -0,0 +1,81 @@
+package io.prj3ct.telegramdemobot.service.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the loader, everyone who asks for
+ * the key while it is running waits for that result instead of starting a load of their own.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            return await(running);
+        }
+
+        try {
+            V value = loader.get();
+            own.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #execute}: the loader starts the load and returns its future, callers
+     * arriving meanwhile get the same result. Shares in-flight loads with {@link #execute}.
+     */
+    public CompletableFuture<V> executeAsync(K key, Supplier<? extends CompletableFuture<? extends V>> loader) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            return running.copy();
+        }
+
+        try {
+            loader.get().whenComplete((value, error) -> {
+                inFlight.remove(key, own);
+                if (error != null) {
+                    own.completeExceptionally(error);
+                } else {
+                    own.complete(value);
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, own);
+            own.completeExceptionally(e);
+        }
+        // Копия, чтобы отмена у одного вызывающего не задела остальных
+        return own.copy();
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package io.prj3ct.telegramdemobot.service.cache;
+
+import io.prj3ct.telegramdemobot.model.CocktailCache;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keys that were served stale and should be refreshed in the background, and keys that were served
+ * untranslated and should be translated in the background. Duplicates collapse into one entry.
+ */
+@Component
+public class StaleEntryQueue {
+
+    public record StaleEntry(CocktailCache.CacheType type, String requestKey) {
+    }
+
+    private final Set<StaleEntry> entries = ConcurrentHashMap.newKeySet();
+    private final Set<StaleEntry> untranslated = ConcurrentHashMap.newKeySet();
+
+    public void add(CocktailCache.CacheType type, String requestKey) {
+        entries.add(new StaleEntry(type, requestKey));
+    }
+
+    public void addUntranslated(CocktailCache.CacheType type, String requestKey) {
+        untranslated.add(new StaleEntry(type, requestKey));
+    }
+
+    public List<StaleEntry> drain(int max) {
+        return drain(entries, max);
+    }
+
+    public List<StaleEntry> drainUntranslated(int max) {
+        return drain(untranslated, max);
+    }
+
+    private static List<StaleEntry> drain(Set<StaleEntry> entries, int max) {
+        List<StaleEntry> drained = new ArrayList<>(Math.min(max, entries.size()));
+        Iterator<StaleEntry> iterator = entries.iterator();
+        while (iterator.hasNext() && drained.size() < max) {
+            drained.add(iterator.next());
+            iterator.remove();
+        }
+        return drained;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int untranslatedSize() {
+        return untranslated.size();
+    }
+}
@@ -0,0 +1,9 @@
+package io.prj3ct.telegramdemobot.service.client;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface CocktailApiAsyncClient {
+    CompletableFuture<String> findByIngredient(String ingredientName);
+    CompletableFuture<String> findById(String id);
+    CompletableFuture<String> listIngredients();
+}
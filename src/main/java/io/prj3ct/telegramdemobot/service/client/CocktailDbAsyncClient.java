@@ -0,0 +1,143 @@
+package io.prj3ct.telegramdemobot.service.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import io.prj3ct.telegramdemobot.config.HttpClientConfig;
+import jakarta.annotation.PreDestroy;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking CocktailDB client on the Apache async HTTP client. Requests are multiplexed over a couple of
+ * I/O reactor threads, so a pending request holds no thread; requests beyond the pool size wait for a
+ * connection in the pool's queue. Results complete on a reactor thread, so callers should move heavy work
+ * off it with the {@code *Async} stages of {@link CompletableFuture}.
+ */
+@Component
+public class CocktailDbAsyncClient implements CocktailApiAsyncClient {
+
+    private final CloseableHttpAsyncClient httpClient;
+    private final String apiBaseUrl;
+    private final MeterRegistry meterRegistry;
+
+    public CocktailDbAsyncClient(HttpClientConfig config, MeterRegistry meterRegistry,
+                                 @Value("${cocktaildb.api.base-url}") String apiBaseUrl) {
+        this.apiBaseUrl = apiBaseUrl;
+        this.meterRegistry = meterRegistry;
+
+        HttpClientConfig.Destination destination = config.getCocktailDb();
+        PoolingAsyncClientConnectionManager connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(destination.getMaxConnections())
+                .setMaxConnPerRoute(destination.getMaxConnections())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(destination.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(destination.getReadTimeout()))
+                        .setTimeToLive(TimeValue.of(destination.getTimeToLive()))
+                        .build())
+                // HTTP/2 согласуется через ALPN, если сервер его поддерживает, иначе остаётся HTTP/1.1
+                .setDefaultTlsConfig(TlsConfig.custom().setVersionPolicy(HttpVersionPolicy.NEGOTIATE).build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "cocktaildb-async").bindTo(meterRegistry);
+
+        this.httpClient = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setIOReactorConfig(IOReactorConfig.custom().setIoThreadCount(config.getAsyncIoThreads()).build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setResponseTimeout(Timeout.of(destination.getReadTimeout()))
+                        .setConnectionKeepAlive(TimeValue.of(destination.getKeepAlive()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(destination.getKeepAlive()))
+                .build();
+        this.httpClient.start();
+    }
+
+    @Override
+    public CompletableFuture<String> findByIngredient(String ingredientName) {
+        return get("filter", UriComponentsBuilder.fromUriString(apiBaseUrl + "filter.php")
+                .queryParam("i", ingredientName));
+    }
+
+    @Override
+    public CompletableFuture<String> findById(String id) {
+        return get("lookup", UriComponentsBuilder.fromUriString(apiBaseUrl + "lookup.php")
+                .queryParam("i", id));
+    }
+
+    @Override
+    public CompletableFuture<String> listIngredients() {
+        return get("list", UriComponentsBuilder.fromUriString(apiBaseUrl + "list.php")
+                .queryParam("i", "list"));
+    }
+
+    private CompletableFuture<String> get(String endpoint, UriComponentsBuilder uri) {
+        URI target = uri.encode().build().toUri();
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        httpClient.execute(SimpleRequestBuilder.get(target).build(), new FutureCallback<>() {
+            @Override
+            public void completed(SimpleHttpResponse response) {
+                if (response.getCode() / 100 != 2) {
+                    result.completeExceptionally(new RestClientResponseException(
+                            "CocktailDB answered " + response.getCode() + " for " + endpoint,
+                            response.getCode(), response.getReasonPhrase(), HttpHeaders.EMPTY,
+                            response.getBodyBytes(), charsetOf(response)));
+                    return;
+                }
+                byte[] body = response.getBodyBytes();
+                // Пустое тело - как null у RestTemplate.getForObject
+                result.complete(body == null || body.length == 0 ? null : new String(body, charsetOf(response)));
+            }
+
+            @Override
+            public void failed(Exception e) {
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                result.cancel(false);
+            }
+        });
+        return result.whenComplete((body, error) -> sample.stop(Timer.builder("cocktaildb.async.requests")
+                .description("Latency of non-blocking CocktailDB requests")
+                .tag("endpoint", endpoint)
+                .tag("outcome", error == null ? "SUCCESS" : "ERROR")
+                .register(meterRegistry)));
+    }
+
+    private static Charset charsetOf(SimpleHttpResponse response) {
+        ContentType contentType = response.getContentType();
+        return contentType != null && contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        httpClient.close(CloseMode.GRACEFUL);
+    }
+}
@@ -3,7 +3,6 @@ package io.prj3ct.telegramdemobot.service.client;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 
 @Component
 public class CocktailDbClient implements CocktailApiClient {
@@ -11,6 +10,7 @@ public class CocktailDbClient implements CocktailApiClient {
     private final RestTemplate restTemplate;
     private final String apiBaseUrl;
 
+    // Запросы идут по шаблону URI, чтобы метрики латентности группировались по эндпоинту, а не по ингредиенту
     public CocktailDbClient(RestTemplate restTemplate, @Value("${cocktaildb.api.base-url}") String apiBaseUrl) {
         this.restTemplate = restTemplate;
         this.apiBaseUrl = apiBaseUrl;
@@ -18,22 +18,16 @@ public class CocktailDbClient implements CocktailApiClient {
 
     @Override
     public String findByIngredient(String ingredientName) {
-        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(apiBaseUrl + "filter.php")
-                .queryParam("i", ingredientName);
-        return restTemplate.getForObject(builder.toUriString(), String.class);
+        return restTemplate.getForObject(apiBaseUrl + "filter.php?i={i}", String.class, ingredientName);
     }
 
     @Override
     public String findById(String id) {
-        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(apiBaseUrl + "lookup.php")
-                .queryParam("i", id);
-        return restTemplate.getForObject(builder.toUriString(), String.class);
+        return restTemplate.getForObject(apiBaseUrl + "lookup.php?i={i}", String.class, id);
     }
     @Override
     public String listIngredients() {
-        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(apiBaseUrl + "list.php")
-                .queryParam("i", "list");
-        return restTemplate.getForObject(builder.toUriString(), String.class);
+        return restTemplate.getForObject(apiBaseUrl + "list.php?i=list", String.class);
     }
 
 }
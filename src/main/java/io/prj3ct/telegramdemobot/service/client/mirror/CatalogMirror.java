@@ -0,0 +1,159 @@
+package io.prj3ct.telegramdemobot.service.client.mirror;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.prj3ct.telegramdemobot.config.CatalogMirrorConfig;
+import io.prj3ct.telegramdemobot.service.client.CocktailDbClient;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps a local copy of the whole CocktailDB catalog: the ingredient list, {@code filter.php} for every
+ * ingredient and {@code lookup.php} for every cocktail found that way. The snapshot file is mapped at startup,
+ * so a node that has it serves immediately; it is re-synced in the background and swapped in atomically.
+ * Re-syncs are incremental: ingredient searches are always refreshed, cocktail details only for new IDs.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "cocktaildb.mirror", name = "enabled", havingValue = "true")
+public class CatalogMirror {
+
+    private final CocktailDbClient upstream;
+    private final CatalogMirrorConfig config;
+    private volatile CatalogSnapshot snapshot;
+
+    public CatalogMirror(CocktailDbClient upstream, CatalogMirrorConfig config, MeterRegistry meterRegistry) {
+        this.upstream = upstream;
+        this.config = config;
+        this.snapshot = openExisting();
+        Gauge.builder("cocktaildb.mirror.entries", this, mirror -> mirror.snapshot == null ? 0 : mirror.snapshot.size())
+                .description("Responses stored in the catalog snapshot")
+                .register(meterRegistry);
+        Gauge.builder("cocktaildb.mirror.age.seconds", this, CatalogMirror::ageSeconds)
+                .description("Age of the catalog snapshot")
+                .register(meterRegistry);
+    }
+
+    public CatalogSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Scheduled(initialDelayString = "${cocktaildb.mirror.initial-delay:10s}", fixedDelayString = "${cocktaildb.mirror.check-interval:1h}")
+    public void syncIfDue() {
+        CatalogSnapshot current = snapshot;
+        if (current != null && current.getCreatedAt().plus(config.getSyncInterval()).isAfter(Instant.now())) {
+            return;
+        }
+        try {
+            sync(current);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Catalog mirror sync failed, keeping the previous snapshot", e);
+        }
+    }
+
+    private void sync(CatalogSnapshot previous) throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        Map<CatalogSnapshot.Key, String> entries = new HashMap<>();
+
+        String ingredientList = upstream.listIngredients();
+        entries.put(new CatalogSnapshot.Key(CatalogSnapshot.Kind.INGREDIENT_LIST, ""), ingredientList);
+
+        Set<String> cocktailIds = new LinkedHashSet<>();
+        int failedSearches = 0;
+        for (String ingredient : names(ingredientList, "strIngredient1")) {
+            String key = ingredient.toLowerCase(Locale.ROOT).trim();
+            String response;
+            try {
+                response = upstream.findByIngredient(key);
+            } catch (Exception e) {
+                // Упавший поиск не должен выкидывать из зеркала то, что уже было
+                failedSearches++;
+                response = previous == null ? null : previous.get(CatalogSnapshot.Kind.FILTER, key);
+            }
+            if (response != null) {
+                entries.put(new CatalogSnapshot.Key(CatalogSnapshot.Kind.FILTER, key), response);
+                cocktailIds.addAll(names(response, "idDrink"));
+            }
+            pause();
+        }
+
+        int fetchedDetails = 0;
+        for (String id : cocktailIds) {
+            String response = previous == null ? null : previous.get(CatalogSnapshot.Kind.LOOKUP, id);
+            if (response == null) {
+                try {
+                    response = upstream.findById(id);
+                    fetchedDetails++;
+                } catch (Exception e) {
+                    log.warn("Catalog mirror: failed to fetch cocktail {}: {}", id, e.getMessage());
+                }
+                pause();
+            }
+            if (response != null) {
+                entries.put(new CatalogSnapshot.Key(CatalogSnapshot.Kind.LOOKUP, id), response);
+            }
+        }
+
+        CatalogSnapshot.write(config.getSnapshotPath(), entries, Instant.now());
+        snapshot = CatalogSnapshot.open(config.getSnapshotPath());
+        log.info("Catalog mirror synced in {}s: {} entries, {} new cocktail details, {} failed searches",
+                Duration.ofNanos(System.nanoTime() - started).toSeconds(), entries.size(), fetchedDetails, failedSearches);
+    }
+
+    private CatalogSnapshot openExisting() {
+        if (!Files.exists(config.getSnapshotPath())) {
+            log.info("No catalog snapshot at {}, it will be built by the first sync", config.getSnapshotPath());
+            return null;
+        }
+        try {
+            CatalogSnapshot existing = CatalogSnapshot.open(config.getSnapshotPath());
+            log.info("Catalog snapshot from {} loaded with {} entries", existing.getCreatedAt(), existing.size());
+            return existing;
+        } catch (IOException e) {
+            log.error("Failed to open catalog snapshot {}, it will be rebuilt", config.getSnapshotPath(), e);
+            return null;
+        }
+    }
+
+    private static Set<String> names(String response, String field) {
+        Set<String> names = new LinkedHashSet<>();
+        if (response == null) {
+            return names;
+        }
+        JSONArray drinks = new JSONObject(response).optJSONArray("drinks");
+        if (drinks != null) {
+            for (int i = 0; i < drinks.length(); i++) {
+                String name = drinks.getJSONObject(i).optString(field, null);
+                if (name != null && !name.isBlank()) {
+                    names.add(name);
+                }
+            }
+        }
+        return names;
+    }
+
+    private void pause() throws InterruptedException {
+        Thread.sleep(config.getRequestDelay().toMillis());
+    }
+
+    private double ageSeconds() {
+        CatalogSnapshot current = snapshot;
+        return current == null ? -1 : Duration.between(current.getCreatedAt(), Instant.now()).toSeconds();
+    }
+}
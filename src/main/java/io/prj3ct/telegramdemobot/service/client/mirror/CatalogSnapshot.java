@@ -0,0 +1,147 @@
+package io.prj3ct.telegramdemobot.service.client.mirror;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Read-only, memory-mapped copy of the CocktailDB responses the bot uses, stored verbatim as UTF-8 JSON.
+ * <p>
+ * File layout: magic, format version, creation time, entry count, then one index record per entry
+ * (kind, key, offset, length) followed by the concatenated response bodies. Only the index is read on open;
+ * bodies are decoded from the mapping on access.
+ */
+public final class CatalogSnapshot {
+
+    public enum Kind {
+        INGREDIENT_LIST,
+        FILTER,
+        LOOKUP
+    }
+
+    public record Key(Kind kind, String key) {
+    }
+
+    private record Slice(long offset, int length) {
+    }
+
+    private static final int MAGIC = 0x43444231; // "CDB1"
+    private static final int FORMAT_VERSION = 1;
+
+    private final Instant createdAt;
+    private final Map<Key, Slice> index;
+    private final MappedByteBuffer data;
+
+    private CatalogSnapshot(Instant createdAt, Map<Key, Slice> index, MappedByteBuffer data) {
+        this.createdAt = createdAt;
+        this.index = index;
+        this.data = data;
+    }
+
+    public static CatalogSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            try {
+                if (data.getInt() != MAGIC || data.getInt() != FORMAT_VERSION) {
+                    throw new IOException("Not a catalog snapshot or unsupported format: " + path);
+                }
+                Instant createdAt = Instant.ofEpochMilli(data.getLong());
+                int count = data.getInt();
+                Map<Key, Slice> index = new HashMap<>(count * 2);
+                for (int i = 0; i < count; i++) {
+                    Kind kind = Kind.values()[data.get()];
+                    byte[] key = new byte[data.getShort() & 0xFFFF];
+                    data.get(key);
+                    index.put(new Key(kind, new String(key, StandardCharsets.UTF_8)), new Slice(data.getLong(), data.getInt()));
+                }
+                return new CatalogSnapshot(createdAt, Map.copyOf(index), data);
+            } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+                throw new IOException("Truncated catalog snapshot: " + path, e);
+            }
+        }
+    }
+
+    /**
+     * Writes the entries to a temporary file next to {@code path} and moves it into place atomically.
+     */
+    public static void write(Path path, Map<Key, String> entries, Instant createdAt) throws IOException {
+        Map<Key, byte[]> bodies = new HashMap<>(entries.size() * 2);
+        entries.forEach((key, json) -> bodies.put(key, json.getBytes(StandardCharsets.UTF_8)));
+
+        long headerSize = 4 + 4 + 8 + 4;
+        for (Key key : bodies.keySet()) {
+            headerSize += 1 + 2 + key.key().getBytes(StandardCharsets.UTF_8).length + 8 + 4;
+        }
+
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream file = Files.newOutputStream(tmp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(createdAt.toEpochMilli());
+                out.writeInt(bodies.size());
+                long offset = headerSize;
+                for (Map.Entry<Key, byte[]> entry : bodies.entrySet()) {
+                    byte[] key = entry.getKey().key().getBytes(StandardCharsets.UTF_8);
+                    out.writeByte(entry.getKey().kind().ordinal());
+                    out.writeShort(key.length);
+                    out.write(key);
+                    out.writeLong(offset);
+                    out.writeInt(entry.getValue().length);
+                    offset += entry.getValue().length;
+                }
+                for (byte[] body : bodies.values()) {
+                    out.write(body);
+                }
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public String get(Kind kind, String key) {
+        Slice slice = index.get(new Key(kind, key));
+        if (slice == null) {
+            return null;
+        }
+        byte[] body = new byte[slice.length()];
+        ByteBuffer view = data.duplicate();
+        view.position((int) slice.offset());
+        view.get(body);
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    public Set<String> keys(Kind kind) {
+        return index.keySet().stream()
+                .filter(key -> key.kind() == kind)
+                .map(Key::key)
+                .collect(Collectors.toSet());
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public int size() {
+        return index.size();
+    }
+}
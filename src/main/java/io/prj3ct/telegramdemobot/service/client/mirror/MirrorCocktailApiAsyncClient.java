@@ -0,0 +1,52 @@
+package io.prj3ct.telegramdemobot.service.client.mirror;
+
+import io.prj3ct.telegramdemobot.service.client.CocktailApiAsyncClient;
+import io.prj3ct.telegramdemobot.service.client.CocktailDbAsyncClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Async counterpart of {@link MirrorCocktailApiClient}: answers from the snapshot right away and goes
+ * upstream only until the first snapshot exists.
+ */
+@Primary
+@Component
+@ConditionalOnProperty(prefix = "cocktaildb.mirror", name = "enabled", havingValue = "true")
+public class MirrorCocktailApiAsyncClient implements CocktailApiAsyncClient {
+
+    private final CatalogMirror mirror;
+    private final CocktailDbAsyncClient upstream;
+
+    public MirrorCocktailApiAsyncClient(CatalogMirror mirror, CocktailDbAsyncClient upstream) {
+        this.mirror = mirror;
+        this.upstream = upstream;
+    }
+
+    @Override
+    public CompletableFuture<String> findByIngredient(String ingredientName) {
+        return serve(CatalogSnapshot.Kind.FILTER, ingredientName, upstream::findByIngredient);
+    }
+
+    @Override
+    public CompletableFuture<String> findById(String id) {
+        return serve(CatalogSnapshot.Kind.LOOKUP, id, upstream::findById);
+    }
+
+    @Override
+    public CompletableFuture<String> listIngredients() {
+        return serve(CatalogSnapshot.Kind.INGREDIENT_LIST, "", key -> upstream.listIngredients());
+    }
+
+    private CompletableFuture<String> serve(CatalogSnapshot.Kind kind, String key,
+                                            Function<String, CompletableFuture<String>> fallback) {
+        CatalogSnapshot snapshot = mirror.getSnapshot();
+        if (snapshot == null) {
+            return fallback.apply(key);
+        }
+        return CompletableFuture.completedFuture(snapshot.get(kind, key));
+    }
+}
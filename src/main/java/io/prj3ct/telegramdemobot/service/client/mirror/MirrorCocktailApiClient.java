@@ -0,0 +1,50 @@
+package io.prj3ct.telegramdemobot.service.client.mirror;
+
+import io.prj3ct.telegramdemobot.service.client.CocktailApiClient;
+import io.prj3ct.telegramdemobot.service.client.CocktailDbClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+/**
+ * Serves CocktailDB requests from the catalog mirror. Upstream is used only until the first snapshot exists;
+ * after that a key missing from the snapshot means CocktailDB has nothing for it.
+ */
+@Primary
+@Component
+@ConditionalOnProperty(prefix = "cocktaildb.mirror", name = "enabled", havingValue = "true")
+public class MirrorCocktailApiClient implements CocktailApiClient {
+
+    private final CatalogMirror mirror;
+    private final CocktailDbClient upstream;
+
+    public MirrorCocktailApiClient(CatalogMirror mirror, CocktailDbClient upstream) {
+        this.mirror = mirror;
+        this.upstream = upstream;
+    }
+
+    @Override
+    public String findByIngredient(String ingredientName) {
+        return serve(CatalogSnapshot.Kind.FILTER, ingredientName, upstream::findByIngredient);
+    }
+
+    @Override
+    public String findById(String id) {
+        return serve(CatalogSnapshot.Kind.LOOKUP, id, upstream::findById);
+    }
+
+    @Override
+    public String listIngredients() {
+        return serve(CatalogSnapshot.Kind.INGREDIENT_LIST, "", key -> upstream.listIngredients());
+    }
+
+    private String serve(CatalogSnapshot.Kind kind, String key, Function<String, String> fallback) {
+        CatalogSnapshot snapshot = mirror.getSnapshot();
+        if (snapshot == null) {
+            return fallback.apply(key);
+        }
+        return snapshot.get(kind, key);
+    }
+}
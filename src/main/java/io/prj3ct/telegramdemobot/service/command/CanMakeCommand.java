@@ -0,0 +1,72 @@
+package io.prj3ct.telegramdemobot.service.command;
+
+import io.prj3ct.telegramdemobot.dto.Cocktail;
+import io.prj3ct.telegramdemobot.dto.RankedCocktail;
+import io.prj3ct.telegramdemobot.service.CocktailDBService;
+import io.prj3ct.telegramdemobot.service.TelegramBot;
+import io.prj3ct.telegramdemobot.service.TranslationGlossary;
+import io.prj3ct.telegramdemobot.service.UserSessionService;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@Component
+public record CanMakeCommand(TelegramBot telegramBot, CocktailDBService cocktailDBService,
+                             UserSessionService userSessionService, TranslationGlossary glossary) implements Command {
+
+    public static final String CAN_MAKE_MESSAGE = "Перечислите через запятую, что у вас есть (например, '/canmake ром, лайм, мята, сахар'), " +
+            "и я подберу коктейли, которым не хватает меньше всего.";
+
+    @Override
+    public void registerRoutes(CommandRouter.Routes routes) {
+        routes.command("/canmake", this);
+    }
+
+    @Override
+    public void execute(Update update, ParsedInput input) {
+        long chatId = update.getMessage().getChatId();
+        String query = input.text().substring(input.command().length()).trim();
+
+        List<String> ingredients = Arrays.stream(query.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toList());
+        if (ingredients.isEmpty()) {
+            telegramBot.sendMessage(chatId, CAN_MAKE_MESSAGE);
+            return;
+        }
+
+        List<RankedCocktail> ranked = cocktailDBService.findWhatCanMake(ingredients);
+        if (ranked.isEmpty()) {
+            telegramBot.sendMessage(chatId, "Не нашлось коктейлей с этими ингредиентами. Попробуйте добавить другие.");
+            return;
+        }
+
+        List<Cocktail> cocktails = ranked.stream().map(RankedCocktail::cocktail).collect(Collectors.toList());
+        userSessionService.saveUserSearchResult(chatId, cocktails);
+        String responseText = "Вот что можно приготовить:\n" +
+                IntStream.range(0, ranked.size())
+                        .mapToObj(i -> (i + 1) + ". " + describe(ranked.get(i)))
+                        .collect(Collectors.joining("\n"));
+        responseText += "\n\nОтправьте номер, чтобы получить рецепт.";
+        telegramBot.sendMessage(chatId, responseText);
+    }
+
+    private String describe(RankedCocktail ranked) {
+        String name = ranked.cocktail().getName();
+        if (ranked.missing().isEmpty()) {
+            return name + " - всё есть";
+        }
+        String missing = ranked.missing().stream()
+                .map(ingredient -> {
+                    String translated = glossary.lookup(ingredient, "en", "ru");
+                    return translated != null ? translated.toLowerCase() : ingredient;
+                })
+                .collect(Collectors.joining(", "));
+        return name + " - не хватает: " + missing;
+    }
+}
@@ -4,5 +4,7 @@ import org.telegram.telegrambots.meta.api.objects.Update;
 
 
 public interface Command {
-    void execute(Update update);
+    void execute(Update update, ParsedInput input);
+
+    void registerRoutes(CommandRouter.Routes routes);
 }
@@ -0,0 +1,123 @@
+package io.prj3ct.telegramdemobot.service.command;
+
+import io.prj3ct.telegramdemobot.service.UserSessionService;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable routing table assembled once from the routes every {@link Command} registers.
+ */
+public class CommandRouter {
+
+    private final Map<String, Command> commands;
+    private final List<CallbackRoute> callbacks;
+    private final Map<UserSessionService.UserState, Map<InputKind, Command>> stateRoutes;
+    private final Map<InputKind, Command> inputRoutes;
+    private final Command unknownCommand;
+
+    private CommandRouter(Routes routes) {
+        this.commands = Map.copyOf(routes.commands);
+        List<CallbackRoute> sortedCallbacks = new ArrayList<>(routes.callbacks);
+        // Самый длинный префикс проверяется первым
+        sortedCallbacks.sort(Comparator.comparingInt((CallbackRoute route) -> route.prefix().length()).reversed());
+        this.callbacks = List.copyOf(sortedCallbacks);
+        Map<UserSessionService.UserState, Map<InputKind, Command>> states = new EnumMap<>(UserSessionService.UserState.class);
+        routes.stateRoutes.forEach((state, kinds) -> states.put(state, new EnumMap<>(kinds)));
+        this.stateRoutes = states;
+        this.inputRoutes = new EnumMap<>(routes.inputRoutes);
+        if (routes.unknownCommand == null) {
+            throw new IllegalStateException("No command registered for unknown input");
+        }
+        this.unknownCommand = routes.unknownCommand;
+    }
+
+    public static CommandRouter build(List<Command> commands) {
+        Routes routes = new Routes();
+        commands.forEach(command -> command.registerRoutes(routes));
+        return new CommandRouter(routes);
+    }
+
+    public Route routeCallback(String data) {
+        if (data == null) {
+            return null;
+        }
+        for (CallbackRoute route : callbacks) {
+            if (data.startsWith(route.prefix())) {
+                return new Route(route.command(), ParsedInput.parse(data.substring(route.prefix().length())));
+            }
+        }
+        return null;
+    }
+
+    public Command routeInState(UserSessionService.UserState state, ParsedInput input) {
+        Map<InputKind, Command> routes = stateRoutes.get(state);
+        return routes == null ? null : routes.get(input.kind());
+    }
+
+    public Command route(ParsedInput input) {
+        if (input.kind() == InputKind.COMMAND) {
+            return commands.getOrDefault(input.command(), unknownCommand);
+        }
+        Command command = inputRoutes.get(input.kind());
+        if (command == null) {
+            command = inputRoutes.getOrDefault(InputKind.TEXT, unknownCommand);
+        }
+        return command;
+    }
+
+    public record Route(Command command, ParsedInput payload) {
+    }
+
+    private record CallbackRoute(String prefix, Command command) {
+    }
+
+    public static class Routes {
+        private final Map<String, Command> commands = new HashMap<>();
+        private final List<CallbackRoute> callbacks = new ArrayList<>();
+        private final Map<UserSessionService.UserState, Map<InputKind, Command>> stateRoutes = new EnumMap<>(UserSessionService.UserState.class);
+        private final Map<InputKind, Command> inputRoutes = new EnumMap<>(InputKind.class);
+        private Command unknownCommand;
+
+        private Routes() {
+        }
+
+        public Routes command(String name, Command command) {
+            register(commands, name.toLowerCase(), command, "command " + name);
+            return this;
+        }
+
+        public Routes callback(String prefix, Command command) {
+            callbacks.add(new CallbackRoute(prefix, command));
+            return this;
+        }
+
+        public Routes input(InputKind kind, Command command) {
+            register(inputRoutes, kind, command, "input " + kind);
+            return this;
+        }
+
+        public Routes inState(UserSessionService.UserState state, InputKind kind, Command command) {
+            register(stateRoutes.computeIfAbsent(state, s -> new EnumMap<>(InputKind.class)), kind, command,
+                    "input " + kind + " in state " + state);
+            return this;
+        }
+
+        public Routes unknown(Command command) {
+            this.unknownCommand = command;
+            return this;
+        }
+
+        private static <K> void register(Map<K, Command> map, K key, Command command, String description) {
+            Command previous = map.putIfAbsent(key, command);
+            if (previous != null && previous != command) {
+                throw new IllegalStateException("Route for " + description + " is registered twice: "
+                        + previous.getClass().getSimpleName() + " and " + command.getClass().getSimpleName());
+            }
+        }
+    }
+}
@@ -4,6 +4,7 @@ import io.prj3ct.telegramdemobot.service.CocktailDBService;
 import io.prj3ct.telegramdemobot.service.TelegramBot;
 import io.prj3ct.telegramdemobot.service.UserSessionService;
 import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
@@ -14,6 +15,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+@Component
 @AllArgsConstructor
 public class IngredientsCommand implements Command {
 
@@ -21,11 +23,18 @@ public class IngredientsCommand implements Command {
     private final CocktailDBService cocktailDBService;
     private final UserSessionService userSessionService;
     private static final int PAGE_SIZE = 20;
+    private static final String CALLBACK_PREFIX = "/ingredients_";
 
     @Override
-    public void execute(Update update) {
+    public void registerRoutes(CommandRouter.Routes routes) {
+        routes.command("/ingredients", this)
+                .callback(CALLBACK_PREFIX, this);
+    }
+
+    @Override
+    public void execute(Update update, ParsedInput input) {
         if (update.hasCallbackQuery()) {
-            processCallback(update);
+            processCallback(update, input);
         } else {
             sendFirstPage(update);
         }
@@ -45,15 +54,16 @@ public class IngredientsCommand implements Command {
         userSessionService.setUserState(chatId, UserSessionService.UserState.AWAITING_INGREDIENT_SELECTION);
     }
 
-    private void processCallback(Update update) {
+    private void processCallback(Update update, ParsedInput page) {
+        if (page.kind() != InputKind.NUMBER) {
+            return;
+        }
         long chatId = update.getCallbackQuery().getMessage().getChatId();
         int messageId = update.getCallbackQuery().getMessage().getMessageId();
-        String[] callbackData = update.getCallbackQuery().getData().split("_");
-        int page = Integer.parseInt(callbackData[1]);
 
         List<String> ingredients = cocktailDBService.getTranslatedIngredients();
-        String text = formatPage(ingredients, page);
-        InlineKeyboardMarkup keyboard = createKeyboard(page, ingredients.size());
+        String text = formatPage(ingredients, page.number());
+        InlineKeyboardMarkup keyboard = createKeyboard(page.number(), ingredients.size());
 
         telegramBot.editMessage(chatId, messageId, text, keyboard);
     }
@@ -75,14 +85,14 @@ public class IngredientsCommand implements Command {
         if (currentPage > 0) {
             InlineKeyboardButton backButton = new InlineKeyboardButton();
             backButton.setText("⬅️ Назад");
-            backButton.setCallbackData("/ingredients_" + (currentPage - 1));
+            backButton.setCallbackData(CALLBACK_PREFIX + (currentPage - 1));
             row.add(backButton);
         }
 
         if ((currentPage + 1) * PAGE_SIZE < totalSize) {
             InlineKeyboardButton nextButton = new InlineKeyboardButton();
             nextButton.setText("Вперед ➡️");
-            nextButton.setCallbackData("/ingredients_" + (currentPage + 1));
+            nextButton.setCallbackData(CALLBACK_PREFIX + (currentPage + 1));
             row.add(nextButton);
         }
 
@@ -0,0 +1,8 @@
+package io.prj3ct.telegramdemobot.service.command;
+
+public enum InputKind {
+    COMMAND,
+    NUMBER,
+    NUMBER_LIST,
+    TEXT
+}
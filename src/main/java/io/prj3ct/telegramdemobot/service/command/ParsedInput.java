@@ -0,0 +1,63 @@
+package io.prj3ct.telegramdemobot.service.command;
+
+import java.util.Arrays;
+
+/**
+ * Message text classified in a single pass: a slash command, one number, a list of numbers
+ * separated by commas or spaces, or free text.
+ */
+public record ParsedInput(InputKind kind, String text, String command, int[] numbers) {
+
+    private static final int[] NO_NUMBERS = new int[0];
+
+    public static ParsedInput parse(String rawText) {
+        String text = rawText == null ? "" : rawText.trim();
+        if (text.isEmpty()) {
+            return new ParsedInput(InputKind.TEXT, text, null, NO_NUMBERS);
+        }
+        if (text.charAt(0) == '/') {
+            int end = text.indexOf(' ');
+            String command = (end < 0 ? text : text.substring(0, end)).toLowerCase();
+            return new ParsedInput(InputKind.COMMAND, text, command, NO_NUMBERS);
+        }
+
+        int[] numbers = new int[4];
+        int count = 0;
+        long current = -1;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                current = (current < 0 ? 0 : current * 10) + (c - '0');
+                if (current > Integer.MAX_VALUE) {
+                    return new ParsedInput(InputKind.TEXT, text, null, NO_NUMBERS);
+                }
+            } else if (c == ',' || c == ' ') {
+                if (current >= 0) {
+                    if (count == numbers.length) {
+                        numbers = Arrays.copyOf(numbers, count * 2);
+                    }
+                    numbers[count++] = (int) current;
+                    current = -1;
+                }
+            } else {
+                return new ParsedInput(InputKind.TEXT, text, null, NO_NUMBERS);
+            }
+        }
+        if (current >= 0) {
+            if (count == numbers.length) {
+                numbers = Arrays.copyOf(numbers, count + 1);
+            }
+            numbers[count++] = (int) current;
+        }
+
+        if (count == 0) {
+            return new ParsedInput(InputKind.TEXT, text, null, NO_NUMBERS);
+        }
+        InputKind kind = count == 1 ? InputKind.NUMBER : InputKind.NUMBER_LIST;
+        return new ParsedInput(kind, text, null, count == numbers.length ? numbers : Arrays.copyOf(numbers, count));
+    }
+
+    public int number() {
+        return numbers.length > 0 ? numbers[0] : -1;
+    }
+}
@@ -5,17 +5,23 @@ import io.prj3ct.telegramdemobot.dto.CocktailDetails;
 import io.prj3ct.telegramdemobot.service.CocktailDBService;
 import io.prj3ct.telegramdemobot.service.TelegramBot;
 import io.prj3ct.telegramdemobot.service.UserSessionService;
+import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.meta.api.objects.Update;
 
 import java.util.List;
 
+@Component
 public record ProcessSelectionCommand(TelegramBot telegramBot, CocktailDBService cocktailDBService,
                                       UserSessionService userSessionService) implements Command {
 
     @Override
-    public void execute(Update update) {
+    public void registerRoutes(CommandRouter.Routes routes) {
+        routes.input(InputKind.NUMBER, this);
+    }
+
+    @Override
+    public void execute(Update update, ParsedInput input) {
         long chatId = update.getMessage().getChatId();
-        String messageText = update.getMessage().getText();
 
         List<Cocktail> lastResult = userSessionService.getUserSearchResult(chatId);
         if (lastResult == null || lastResult.isEmpty()) {
@@ -23,15 +29,9 @@ public record ProcessSelectionCommand(TelegramBot telegramBot, CocktailDBService
             return;
         }
 
-        int choice;
-        try {
-            choice = Integer.parseInt(messageText);
-            if (choice < 1 || choice > lastResult.size()) {
-                telegramBot.sendMessage(chatId, "Пожалуйста, выберите номер из списка.");
-                return;
-            }
-        } catch (NumberFormatException e) {
-            telegramBot.sendMessage(chatId, "Это не похоже на номер. Пожалуйста, выберите номер из списка.");
+        int choice = input.number();
+        if (choice < 1 || choice > lastResult.size()) {
+            telegramBot.sendMessage(chatId, "Пожалуйста, выберите номер из списка.");
             return;
         }
 
@@ -4,6 +4,7 @@ import io.prj3ct.telegramdemobot.dto.Cocktail;
 import io.prj3ct.telegramdemobot.service.CocktailDBService;
 import io.prj3ct.telegramdemobot.service.TelegramBot;
 import io.prj3ct.telegramdemobot.service.UserSessionService;
+import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.meta.api.objects.Update;
 
 import java.util.Arrays;
@@ -11,19 +12,26 @@ import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+@Component
 public record SearchCommand(TelegramBot telegramBot, CocktailDBService cocktailDBService,
                             UserSessionService userSessionService) implements Command {
 
     public static final String SEARCH_MESSAGE = "Введите название ингредиента (например, 'водка') или несколько через запятую (например, 'ром, мята').";
 
     @Override
-    public void execute(Update update) {
+    public void registerRoutes(CommandRouter.Routes routes) {
+        routes.command("/search", this)
+                .input(InputKind.TEXT, this);
+    }
+
+    @Override
+    public void execute(Update update, ParsedInput input) {
         long chatId = update.getMessage().getChatId();
-        String messageText = update.getMessage().getText().trim();
+        String messageText = input.text();
 
         String query;
-        if (messageText.toLowerCase().startsWith("/search")) {
-            query = messageText.substring("/search".length()).trim();
+        if (input.kind() == InputKind.COMMAND) {
+            query = messageText.substring(input.command().length()).trim();
         } else {
             query = messageText;
         }
@@ -33,7 +41,7 @@ public record SearchCommand(TelegramBot telegramBot, CocktailDBService cocktailD
             return;
         }
 
-        List<String> ingredients = Arrays.stream(messageText.split(","))
+        List<String> ingredients = Arrays.stream(query.split(","))
                 .map(String::trim)
                 .filter(s -> !s.isEmpty())
                 .collect(Collectors.toList());
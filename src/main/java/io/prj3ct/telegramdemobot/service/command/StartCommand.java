@@ -1,8 +1,10 @@
 package io.prj3ct.telegramdemobot.service.command;
 
 import io.prj3ct.telegramdemobot.service.TelegramBot;
+import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.meta.api.objects.Update;
 
+@Component
 public record StartCommand(TelegramBot telegramBot) implements Command {
 
     private static final String START_MESSAGE = "Привет! Я бот для поиска коктейлей. " +
@@ -11,7 +13,12 @@ public record StartCommand(TelegramBot telegramBot) implements Command {
             "Ты также можешь искать по нескольким ингредиентам, перечислив их через запятую (например, 'ром, мята').";
 
     @Override
-    public void execute(Update update) {
+    public void registerRoutes(CommandRouter.Routes routes) {
+        routes.command("/start", this);
+    }
+
+    @Override
+    public void execute(Update update, ParsedInput input) {
         long chatId = update.getMessage().getChatId();
         telegramBot.sendMessage(chatId, START_MESSAGE);
     }
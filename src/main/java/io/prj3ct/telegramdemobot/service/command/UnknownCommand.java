@@ -1,14 +1,21 @@
 package io.prj3ct.telegramdemobot.service.command;
 
 import io.prj3ct.telegramdemobot.service.TelegramBot;
+import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.meta.api.objects.Update;
 
+@Component
 public record UnknownCommand(TelegramBot telegramBot) implements Command {
 
     public static final String UNKNOWN_MESSAGE = "Не понимаю вас \uD83D\uDE1F, напишите /start";
 
     @Override
-    public void execute(Update update) {
+    public void registerRoutes(CommandRouter.Routes routes) {
+        routes.unknown(this);
+    }
+
+    @Override
+    public void execute(Update update, ParsedInput input) {
         telegramBot.sendMessage(update.getMessage().getChatId(), UNKNOWN_MESSAGE);
     }
 }
@@ -0,0 +1,133 @@
+package io.prj3ct.telegramdemobot.service.index;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.prj3ct.telegramdemobot.dto.Cocktail;
+import io.prj3ct.telegramdemobot.dto.RankedCocktail;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cocktail to ingredient matrix for "what can I make" searches. Each row holds the cocktail's canonical
+ * ingredients as a bitmap over ingredient ordinals, so scoring a cocktail is a handful of bit lookups and
+ * ranking the whole catalog is one pass with a bounded heap.
+ */
+@Component
+public class CocktailIngredientMatrix {
+
+    // Меньше недостающих - выше; при равенстве выше тот, где использовано больше ингредиентов пользователя
+    private static final Comparator<Scored> RANKING = Comparator.comparingInt(Scored::missing)
+            .thenComparing(Comparator.comparingInt(Scored::used).reversed())
+            .thenComparing(scored -> scored.row().name());
+
+    private record Row(String id, String name, List<String> ingredients, BitSet bits) {
+    }
+
+    private record Scored(Row row, int used, int missing) {
+    }
+
+    private final IngredientMatcher ingredientMatcher;
+    private final Map<String, Integer> ingredientOrdinals = new ConcurrentHashMap<>();
+    private final AtomicInteger nextOrdinal = new AtomicInteger();
+    private final Map<String, Row> rows = new ConcurrentHashMap<>();
+
+    public CocktailIngredientMatrix(IngredientMatcher ingredientMatcher, MeterRegistry meterRegistry) {
+        this.ingredientMatcher = ingredientMatcher;
+        meterRegistry.gauge("ingredient.matrix.cocktails", rows, Map::size);
+    }
+
+    /**
+     * Adds or replaces a cocktail row. Ingredients look like "Vodka - 1 oz" and may be translated; they are
+     * mapped to canonical names by exact lookup only; fuzzy matching is for user input. A translated cocktail name
+     * is kept over an English one.
+     */
+    public void add(String cocktailId, String name, List<String> ingredients) {
+        Set<String> canonical = new LinkedHashSet<>();
+        for (String ingredient : ingredients) {
+            String bare = ingredient.split(" - ", 2)[0].trim();
+            if (!bare.isEmpty()) {
+                canonical.add(ingredientMatcher.canonical(bare).orElse(bare));
+            }
+        }
+        BitSet bits = new BitSet();
+        canonical.forEach(ingredient -> bits.set(ordinal(ingredient)));
+        rows.merge(cocktailId, new Row(cocktailId, name, List.copyOf(canonical), bits),
+                (existing, added) -> isCyrillic(existing.name()) && !isCyrillic(added.name())
+                        ? new Row(added.id(), existing.name(), added.ingredients(), added.bits())
+                        : added);
+    }
+
+    /**
+     * Ranks every known cocktail that uses at least one of the given ingredients and returns the best {@code limit}.
+     */
+    public List<RankedCocktail> rank(List<String> ingredients, int limit) {
+        BitSet query = new BitSet();
+        for (String ingredient : ingredients) {
+            Integer ordinal = ingredientOrdinals.get(key(ingredientMatcher.resolve(ingredient).orElse(ingredient)));
+            if (ordinal != null) {
+                query.set(ordinal);
+            }
+        }
+        if (query.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        // В куче лежат лучшие limit строк, на вершине худшая из них
+        PriorityQueue<Scored> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        for (Row row : rows.values()) {
+            int used = 0;
+            for (int bit = query.nextSetBit(0); bit >= 0; bit = query.nextSetBit(bit + 1)) {
+                if (row.bits().get(bit)) {
+                    used++;
+                }
+            }
+            if (used == 0) {
+                continue;
+            }
+            best.offer(new Scored(row, used, row.ingredients().size() - used));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        List<Scored> ranked = new ArrayList<>(best);
+        ranked.sort(RANKING);
+        List<RankedCocktail> result = new ArrayList<>(ranked.size());
+        for (Scored scored : ranked) {
+            List<String> missing = scored.row().ingredients().stream()
+                    .filter(ingredient -> !query.get(ingredientOrdinals.get(key(ingredient))))
+                    .toList();
+            Cocktail cocktail = new Cocktail();
+            cocktail.setId(scored.row().id());
+            cocktail.setName(scored.row().name());
+            result.add(new RankedCocktail(cocktail, scored.used(), missing));
+        }
+        return result;
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    private int ordinal(String ingredient) {
+        return ingredientOrdinals.computeIfAbsent(key(ingredient), k -> nextOrdinal.getAndIncrement());
+    }
+
+    private static String key(String ingredient) {
+        return ingredient.toLowerCase(Locale.ROOT).trim();
+    }
+
+    private static boolean isCyrillic(String text) {
+        return text != null && text.codePoints().anyMatch(c -> Character.UnicodeScript.of(c) == Character.UnicodeScript.CYRILLIC);
+    }
+}
@@ -0,0 +1,122 @@
+package io.prj3ct.telegramdemobot.service.index;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.prj3ct.telegramdemobot.dto.Cocktail;
+import io.prj3ct.telegramdemobot.service.TranslationGlossary;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory inverted index from ingredient to the set of cocktails containing it. Cocktail IDs are mapped to
+ * dense ordinals so each posting is a {@link BitSet} and a multi-ingredient search is a chain of ANDs.
+ * <p>
+ * A posting is <i>complete</i> only when it was built from a full CocktailDB search for that ingredient;
+ * postings learned from cocktail details are partial and never answer a query on their own.
+ * Published bitmaps are never mutated, writers replace them with an updated copy.
+ */
+@Component
+public class IngredientIndex {
+
+    private final TranslationGlossary glossary;
+
+    private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+    private final AtomicInteger nextOrdinal = new AtomicInteger();
+    private final Map<String, BitSet> postings = new ConcurrentHashMap<>();
+    private final Set<String> complete = ConcurrentHashMap.newKeySet();
+
+    public IngredientIndex(TranslationGlossary glossary, MeterRegistry meterRegistry) {
+        this.glossary = glossary;
+        meterRegistry.gauge("ingredient.index.cocktails", ordinals, Map::size);
+        meterRegistry.gauge("ingredient.index.ingredients", complete, Set::size);
+    }
+
+    /**
+     * Replaces the posting for an ingredient with the full result of a search for it.
+     */
+    public void indexSearch(String ingredient, List<Cocktail> cocktails) {
+        String key = normalize(ingredient);
+        BitSet bits = new BitSet();
+        for (Cocktail cocktail : cocktails) {
+            bits.set(ordinal(cocktail.getId()));
+        }
+        postings.put(key, bits);
+        complete.add(key);
+    }
+
+    /**
+     * Adds a cocktail to the postings of its ingredients. Entries look like "Vodka - 1 oz".
+     */
+    public void indexDetails(String cocktailId, List<String> ingredients) {
+        int ordinal = ordinal(cocktailId);
+        for (String ingredient : ingredients) {
+            String key = normalize(ingredient.split(" - ", 2)[0]);
+            postings.compute(key, (k, bits) -> {
+                if (bits != null && bits.get(ordinal)) {
+                    return bits;
+                }
+                BitSet updated = bits == null ? new BitSet() : (BitSet) bits.clone();
+                updated.set(ordinal);
+                return updated;
+            });
+        }
+    }
+
+    public boolean isComplete(String ingredient) {
+        return resolve(normalize(ingredient)) != null;
+    }
+
+    /**
+     * Intersects the postings of all ingredients, or returns empty if any of them is not fully indexed yet.
+     */
+    public Optional<BitSet> intersect(List<String> ingredients) {
+        BitSet result = null;
+        for (String ingredient : ingredients) {
+            BitSet bits = resolve(normalize(ingredient));
+            if (bits == null) {
+                return Optional.empty();
+            }
+            if (result == null) {
+                result = (BitSet) bits.clone();
+            } else {
+                result.and(bits);
+            }
+        }
+        return Optional.ofNullable(result);
+    }
+
+    public boolean contains(BitSet matches, String cocktailId) {
+        Integer ordinal = ordinals.get(cocktailId);
+        return ordinal != null && matches.get(ordinal);
+    }
+
+    private BitSet resolve(String key) {
+        if (complete.contains(key)) {
+            return postings.get(key);
+        }
+        // Русский запрос мог не встречаться, но английское название ингредиента уже проиндексировано обходом
+        String english = glossary.lookup(key, "ru", "en");
+        if (english != null) {
+            String englishKey = normalize(english);
+            if (complete.contains(englishKey)) {
+                return postings.get(englishKey);
+            }
+        }
+        return null;
+    }
+
+    private int ordinal(String cocktailId) {
+        return ordinals.computeIfAbsent(cocktailId, id -> nextOrdinal.getAndIncrement());
+    }
+
+    private static String normalize(String ingredient) {
+        return ingredient.toLowerCase(Locale.ROOT).trim();
+    }
+}
@@ -0,0 +1,164 @@
+package io.prj3ct.telegramdemobot.service.index;
+
+import io.prj3ct.telegramdemobot.dto.Cocktail;
+import io.prj3ct.telegramdemobot.dto.CocktailDetails;
+import io.prj3ct.telegramdemobot.model.CocktailCache;
+import io.prj3ct.telegramdemobot.service.CocktailDBService;
+import io.prj3ct.telegramdemobot.service.cache.CachePayloadCodec;
+import io.prj3ct.telegramdemobot.service.client.mirror.CatalogMirror;
+import io.prj3ct.telegramdemobot.service.client.mirror.CatalogSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Fills {@link IngredientIndex} and {@link CocktailIngredientMatrix}: after startup from the catalog mirror (when
+ * enabled) and what is already in cocktail_cache, then periodically by searching every ingredient from
+ * CocktailDB's ingredient list that is not fully indexed yet.
+ */
+@Slf4j
+@Component
+public class IngredientIndexCrawler {
+
+    private final IngredientIndex ingredientIndex;
+    private final IngredientMatcher ingredientMatcher;
+    private final CocktailIngredientMatrix ingredientMatrix;
+    private final ObjectProvider<CatalogMirror> catalogMirror;
+    private final CocktailDBService cocktailDBService;
+    private final MongoTemplate mongoTemplate;
+    private final CachePayloadCodec cachePayloadCodec;
+    private final TaskExecutor taskExecutor;
+    private final Duration requestDelay;
+
+    public IngredientIndexCrawler(IngredientIndex ingredientIndex,
+                                  IngredientMatcher ingredientMatcher,
+                                  CocktailIngredientMatrix ingredientMatrix,
+                                  ObjectProvider<CatalogMirror> catalogMirror,
+                                  CocktailDBService cocktailDBService,
+                                  MongoTemplate mongoTemplate,
+                                  CachePayloadCodec cachePayloadCodec,
+                                  @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                                  @Value("${index.crawl.request-delay:200ms}") Duration requestDelay) {
+        this.ingredientIndex = ingredientIndex;
+        this.ingredientMatcher = ingredientMatcher;
+        this.ingredientMatrix = ingredientMatrix;
+        this.catalogMirror = catalogMirror;
+        this.cocktailDBService = cocktailDBService;
+        this.mongoTemplate = mongoTemplate;
+        this.cachePayloadCodec = cachePayloadCodec;
+        this.taskExecutor = taskExecutor;
+        this.requestDelay = requestDelay;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWarmUp() {
+        taskExecutor.execute(() -> {
+            loadFromMirror();
+            loadFromCache();
+        });
+    }
+
+    // Зеркало каталога содержит lookup.php для всех коктейлей, из него матрица строится целиком и без сети
+    void loadFromMirror() {
+        CatalogMirror mirror = catalogMirror.getIfAvailable();
+        CatalogSnapshot snapshot = mirror == null ? null : mirror.getSnapshot();
+        if (snapshot == null) {
+            return;
+        }
+        int loaded = 0;
+        for (String id : snapshot.keys(CatalogSnapshot.Kind.LOOKUP)) {
+            JSONArray drinks = new JSONObject(snapshot.get(CatalogSnapshot.Kind.LOOKUP, id)).optJSONArray("drinks");
+            if (drinks == null || drinks.isEmpty()) {
+                continue;
+            }
+            JSONObject drink = drinks.getJSONObject(0);
+            List<String> ingredients = new ArrayList<>();
+            for (int i = 1; i <= 15; i++) {
+                String ingredient = drink.optString("strIngredient" + i, null);
+                if (ingredient == null || ingredient.isBlank()) {
+                    break;
+                }
+                ingredients.add(ingredient);
+            }
+            ingredientIndex.indexDetails(id, ingredients);
+            ingredientMatrix.add(id, drink.optString("strDrink", id), ingredients);
+            loaded++;
+        }
+        log.info("Ingredient matrix loaded from the catalog mirror: {} cocktails", loaded);
+    }
+
+    void loadFromCache() {
+        int searches = 0;
+        int details = 0;
+        Query query = Query.query(Criteria.where("type").in(
+                CocktailCache.CacheType.INGREDIENT_SEARCH, CocktailCache.CacheType.COCKTAIL_DETAILS));
+        query.fields().include("requestKey", "type", "responseJson", "schemaVersion", "cocktails", "details");
+        try (Stream<CocktailCache> documents = mongoTemplate.stream(query, CocktailCache.class)) {
+            for (CocktailCache cache : (Iterable<CocktailCache>) documents::iterator) {
+                try {
+                    if (cache.getType() == CocktailCache.CacheType.INGREDIENT_SEARCH) {
+                        List<Cocktail> cocktails = cachePayloadCodec.read(cache, cache.getType());
+                        ingredientIndex.indexSearch(cache.getRequestKey(), cocktails);
+                        searches++;
+                    } else {
+                        CocktailDetails cocktailDetails = cachePayloadCodec.read(cache, cache.getType());
+                        ingredientIndex.indexDetails(cocktailDetails.getId(), ingredientMatcher.canonicalIngredients(cocktailDetails));
+                        ingredientMatrix.add(cocktailDetails.getId(), cocktailDetails.getName(), ingredientMatcher.canonicalIngredients(cocktailDetails));
+                        details++;
+                    }
+                } catch (Exception e) {
+                    log.warn("Skipping unreadable cache entry '{}' ({}) while building the ingredient index", cache.getRequestKey(), cache.getType());
+                }
+            }
+            log.info("Ingredient index loaded from cache: {} searches, {} cocktail details", searches, details);
+        } catch (Exception e) {
+            log.error("Failed to load the ingredient index from cache", e);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${index.crawl.initial-delay:5m}", fixedDelayString = "${index.crawl.interval:1d}")
+    public void crawl() {
+        loadFromMirror();
+        List<String> ingredients;
+        try {
+            ingredients = cocktailDBService.getIngredientsList();
+            ingredientMatcher.addCanonical(ingredients);
+        } catch (Exception e) {
+            log.error("Ingredient index crawl skipped: failed to list ingredients", e);
+            return;
+        }
+
+        int crawled = 0;
+        for (String ingredient : ingredients) {
+            if (ingredientIndex.isComplete(ingredient)) {
+                continue;
+            }
+            // findByIngredient сам кладёт результат в индекс, заодно прогревая кеш
+            cocktailDBService.findByIngredient(ingredient);
+            crawled++;
+            try {
+                Thread.sleep(requestDelay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        log.info("Ingredient index crawl finished: {} of {} ingredients searched", crawled, ingredients.size());
+    }
+}
@@ -0,0 +1,262 @@
+package io.prj3ct.telegramdemobot.service.index;
+
+import io.prj3ct.telegramdemobot.dto.CocktailDetails;
+import io.prj3ct.telegramdemobot.service.TranslationGlossary;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Resolves free-text ingredient queries, Russian or English and possibly misspelled, to canonical CocktailDB
+ * ingredient names without any network call.
+ * <p>
+ * Terms are folded (lower case, ё to е, no spaces or punctuation, Latin look-alikes inside Cyrillic words
+ * replaced) so "limejuice" and "водкa" with a Latin "a" match exactly. Otherwise candidates sharing enough
+ * trigrams with the query are checked with a bounded edit distance (a transposition is one edit), and a long
+ * enough query may also match as a unique prefix. The vocabulary is an immutable snapshot replaced on every update.
+ */
+@Slf4j
+@Component
+public class IngredientMatcher {
+
+    private static final int MIN_PREFIX_LENGTH = 4;
+
+    private record Vocabulary(Map<String, String> canonicalByTerm, Map<String, List<String>> termsByTrigram) {
+    }
+
+    private volatile Vocabulary vocabulary = new Vocabulary(Map.of(), Map.of());
+
+    public IngredientMatcher(TranslationGlossary glossary) {
+        Map<String, String> aliases = new HashMap<>();
+        glossary.getDocument().getEntries().forEach((english, russian) -> {
+            aliases.put(english, english);
+            aliases.put(russian, english);
+        });
+        addAliases(aliases);
+        log.info("Ingredient matcher initialized with {} terms", vocabulary.canonicalByTerm().size());
+    }
+
+    /**
+     * Adds canonical English names, each also matching itself.
+     */
+    public void addCanonical(List<String> englishNames) {
+        Map<String, String> aliases = new HashMap<>();
+        englishNames.forEach(name -> aliases.put(name, name));
+        addAliases(aliases);
+    }
+
+    /**
+     * Adds pairs of the English list and its translation, aligned by position.
+     */
+    public void addTranslations(List<String> englishNames, List<String> translatedNames) {
+        Map<String, String> aliases = new HashMap<>();
+        for (int i = 0; i < englishNames.size() && i < translatedNames.size(); i++) {
+            aliases.put(englishNames.get(i), englishNames.get(i));
+            aliases.put(translatedNames.get(i), englishNames.get(i));
+        }
+        addAliases(aliases);
+    }
+
+    /**
+     * English CocktailDB names of the cocktail's ingredients. Details cached before those names were stored
+     * carry only the (possibly translated) lines, which are resolved here; lines that do not resolve are left out.
+     */
+    public List<String> canonicalIngredients(CocktailDetails details) {
+        if (details.getSourceIngredients() != null) {
+            return details.getSourceIngredients();
+        }
+        List<String> canonical = new ArrayList<>();
+        for (String line : details.getIngredients()) {
+            canonical(line.split(" - ", 2)[0].trim()).ifPresent(canonical::add);
+        }
+        return canonical;
+    }
+
+    /**
+     * Exact lookup of a known ingredient name or its translation, for names that come from the catalog itself.
+     * Unlike {@link #resolve} it never guesses: "Apricot" must not turn into "Apricot brandy".
+     */
+    public Optional<String> canonical(String name) {
+        return Optional.ofNullable(vocabulary.canonicalByTerm().get(fold(name)));
+    }
+
+    /**
+     * Resolves a user query. A query equal to a known ingredient name returns that name as is; only otherwise
+     * are trigram and prefix candidates tried.
+     */
+    public Optional<String> resolve(String query) {
+        String folded = fold(query);
+        if (folded.isEmpty()) {
+            return Optional.empty();
+        }
+        Vocabulary current = vocabulary;
+        String exact = current.canonicalByTerm().get(folded);
+        if (exact != null) {
+            return Optional.of(exact);
+        }
+
+        int maxDistance = maxDistance(folded);
+        if (maxDistance > 0) {
+            String fuzzy = closest(current, folded, maxDistance);
+            if (fuzzy != null) {
+                return Optional.of(fuzzy);
+            }
+        }
+        return folded.length() >= MIN_PREFIX_LENGTH ? uniquePrefix(current, folded) : Optional.empty();
+    }
+
+    private synchronized void addAliases(Map<String, String> aliases) {
+        Map<String, String> canonicalByTerm = new HashMap<>(vocabulary.canonicalByTerm());
+        aliases.forEach((alias, canonical) -> {
+            String term = fold(alias);
+            if (term.isEmpty()) {
+                return;
+            }
+            // Название ингредиента важнее чужого перевода с тем же написанием: иначе "Tonic", попавший в словарь
+            // переводом "Tonic water", так и резолвился бы в "Tonic water"
+            if (term.equals(fold(canonical))) {
+                canonicalByTerm.put(term, canonical);
+            } else {
+                canonicalByTerm.putIfAbsent(term, canonical);
+            }
+        });
+        if (canonicalByTerm.equals(vocabulary.canonicalByTerm())) {
+            return;
+        }
+        Map<String, List<String>> termsByTrigram = new HashMap<>();
+        for (String term : canonicalByTerm.keySet()) {
+            for (String trigram : trigrams(term)) {
+                termsByTrigram.computeIfAbsent(trigram, t -> new ArrayList<>()).add(term);
+            }
+        }
+        vocabulary = new Vocabulary(Map.copyOf(canonicalByTerm), Map.copyOf(termsByTrigram));
+    }
+
+    private static String closest(Vocabulary vocabulary, String query, int maxDistance) {
+        Set<String> queryTrigrams = trigrams(query);
+        // Одна правка меняет не больше трёх триграмм
+        int minShared = Math.max(1, queryTrigrams.size() - 3 * maxDistance);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            for (String term : vocabulary.termsByTrigram().getOrDefault(trigram, List.of())) {
+                shared.merge(term, 1, Integer::sum);
+            }
+        }
+
+        String best = null;
+        int bestDistance = maxDistance + 1;
+        for (Map.Entry<String, Integer> candidate : shared.entrySet()) {
+            String term = candidate.getKey();
+            if (candidate.getValue() < minShared || Math.abs(term.length() - query.length()) > maxDistance) {
+                continue;
+            }
+            int distance = distance(query, term, maxDistance);
+            if (distance < bestDistance || (distance == bestDistance && best != null && term.length() < best.length())) {
+                best = term;
+                bestDistance = distance;
+            }
+        }
+        return best == null ? null : vocabulary.canonicalByTerm().get(best);
+    }
+
+    private static Optional<String> uniquePrefix(Vocabulary vocabulary, String query) {
+        Set<String> matches = new HashSet<>();
+        String shortest = null;
+        for (Map.Entry<String, String> entry : vocabulary.canonicalByTerm().entrySet()) {
+            if (entry.getKey().startsWith(query)) {
+                matches.add(entry.getValue());
+                if (shortest == null || entry.getKey().length() < shortest.length()) {
+                    shortest = entry.getKey();
+                }
+            }
+        }
+        return matches.size() == 1 ? Optional.of(vocabulary.canonicalByTerm().get(shortest)) : Optional.empty();
+    }
+
+    private static int maxDistance(String term) {
+        if (term.length() <= 4) {
+            return 0;
+        }
+        return term.length() <= 8 ? 1 : 2;
+    }
+
+    // Расстояние Дамерау-Левенштейна (перестановка соседних букв - одна правка) с отсечкой:
+    // как только вся строка матрицы больше limit, дальше считать нет смысла
+    private static int distance(String a, String b, int limit) {
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], beforePrevious[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] swap = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static Set<String> trigrams(String term) {
+        String padded = "^" + term + "$";
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    static String fold(String text) {
+        String lower = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        boolean cyrillic = lower.codePoints().anyMatch(c -> Character.UnicodeScript.of(c) == Character.UnicodeScript.CYRILLIC);
+        StringBuilder folded = new StringBuilder(lower.length());
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                continue;
+            }
+            folded.append(cyrillic ? toCyrillicLookalike(c) : c);
+        }
+        return folded.toString();
+    }
+
+    private static char toCyrillicLookalike(char c) {
+        return switch (c) {
+            case 'a' -> 'а';
+            case 'c' -> 'с';
+            case 'e' -> 'е';
+            case 'k' -> 'к';
+            case 'm' -> 'м';
+            case 'o' -> 'о';
+            case 'p' -> 'р';
+            case 't' -> 'т';
+            case 'x' -> 'х';
+            case 'y' -> 'у';
+            case 'h' -> 'н';
+            case 'b' -> 'в';
+            default -> c;
+        };
+    }
+}
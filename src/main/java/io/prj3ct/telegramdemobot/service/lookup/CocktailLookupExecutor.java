@@ -0,0 +1,93 @@
+package io.prj3ct.telegramdemobot.service.lookup;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool for cocktail lookups that run concurrently (one per ingredient of a multi-ingredient search).
+ * When the queue is full the caller runs the lookup itself, which slows it down instead of failing it.
+ */
+@Component
+public class CocktailLookupExecutor {
+
+    private final ThreadPoolExecutor workers;
+    private final ThreadPoolExecutor continuations;
+
+    public CocktailLookupExecutor(@Value("${cocktaildb.lookup.threads:8}") int threads,
+                                  @Value("${cocktaildb.lookup.queue-capacity:64}") int queueCapacity,
+                                  MeterRegistry meterRegistry) {
+        int poolSize = Math.max(1, threads);
+        this.workers = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), threadFactory("cocktail-lookup-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.workers.allowCoreThreadTimeOut(true);
+        // Продолжения сдаются сюда с потоков I/O-реактора асинхронного клиента. Очередь без границы: выполнить работу
+        // на сдающем потоке (как CallerRunsPolicy) значило бы остановить все запросы в полёте. Число продолжений
+        // и так ограничено числом запросов к CocktailDB, которые их порождают
+        this.continuations = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory("cocktail-continuation-"));
+        this.continuations.allowCoreThreadTimeOut(true);
+
+        Gauge.builder("cocktaildb.lookup.active", workers, ThreadPoolExecutor::getActiveCount)
+                .description("Lookups currently running on the lookup pool")
+                .register(meterRegistry);
+        Gauge.builder("cocktaildb.lookup.queued", workers, pool -> pool.getQueue().size())
+                .description("Lookups waiting for a free lookup thread")
+                .register(meterRegistry);
+        Gauge.builder("cocktaildb.lookup.continuations.queued", continuations, pool -> pool.getQueue().size())
+                .description("Stages waiting to continue after an async CocktailDB response")
+                .register(meterRegistry);
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> lookup) {
+        return CompletableFuture.supplyAsync(lookup, workers);
+    }
+
+    /**
+     * Executor for continuation stages ({@code thenApplyAsync} and the like) submitted from threads that must not
+     * block, such as the async client's I/O reactor. Unlike {@link #supply} it never runs work on the submitting thread.
+     */
+    public Executor continuationExecutor() {
+        return continuations;
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+        continuations.shutdown();
+        try {
+            if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+            if (!continuations.awaitTermination(5, TimeUnit.SECONDS)) {
+                continuations.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            continuations.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
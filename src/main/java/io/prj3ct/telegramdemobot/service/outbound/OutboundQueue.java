@@ -0,0 +1,234 @@
+package io.prj3ct.telegramdemobot.service.outbound;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.prj3ct.telegramdemobot.config.OutboundConfig;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules outgoing Telegram calls so that they stay inside the bot-wide and per-chat rate limits.
+ * Calls to one chat are sent one at a time in submission order; a 429 answer pauses that chat for
+ * {@code retry_after} seconds and the call is retried from the head of its queue.
+ */
+@Slf4j
+@Component
+public class OutboundQueue {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final OutboundConfig config;
+    private final TokenBucket globalBucket;
+    private final Map<Long, ChatOutbox> outboxes = new LinkedHashMap<>();
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "outbound-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Counter throttledCounter;
+    private final Counter failedCounter;
+    private ScheduledFuture<?> wakeUp;
+    private long wakeUpAt = Long.MAX_VALUE;
+    private int pending;
+
+    public OutboundQueue(OutboundConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.globalBucket = new TokenBucket(config.getGlobalPerSecond(), Math.max(1, config.getGlobalPerSecond()));
+        Gauge.builder("bot.outbound.pending", this, OutboundQueue::pendingCount)
+                .description("Outgoing Telegram calls waiting for a send slot")
+                .register(meterRegistry);
+        this.throttledCounter = Counter.builder("bot.outbound.throttled")
+                .description("Calls answered with 429 Too Many Requests")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("bot.outbound.failed")
+                .description("Calls that failed after all retries")
+                .register(meterRegistry);
+    }
+
+    public <T> CompletableFuture<T> submit(long chatId, TelegramCall<T> call) {
+        OutboundCall<T> outboundCall = new OutboundCall<>(call);
+        synchronized (this) {
+            outboxes.computeIfAbsent(chatId, id -> new ChatOutbox(id, newChatBucket())).queue.add(outboundCall);
+            pending++;
+        }
+        dispatcher.execute(this::pump);
+        return outboundCall.result;
+    }
+
+    private TokenBucket newChatBucket() {
+        return new TokenBucket(config.getPerChatPerSecond(), Math.max(1, config.getPerChatBurst()));
+    }
+
+    private synchronized int pendingCount() {
+        return pending;
+    }
+
+    // Сами вызовы выполняются уже вне монитора: отправка (и поставщик файла для фото) не должна держать очередь
+    private void pump() {
+        List<Dispatch> ready;
+        synchronized (this) {
+            ready = takeReady();
+        }
+        for (Dispatch dispatch : ready) {
+            send(dispatch.outbox(), dispatch.call());
+        }
+    }
+
+    private void wakeUpAndPump() {
+        synchronized (this) {
+            // Задача уже выполняется, но ещё не isDone(): без сброса pump ниже не смог бы заново завести будильник
+            wakeUp = null;
+            wakeUpAt = Long.MAX_VALUE;
+        }
+        pump();
+    }
+
+    private List<Dispatch> takeReady() {
+        long now = System.nanoTime();
+        long nextWake = Long.MAX_VALUE;
+        List<Dispatch> ready = new ArrayList<>();
+
+        Iterator<ChatOutbox> iterator = outboxes.values().iterator();
+        while (iterator.hasNext()) {
+            ChatOutbox outbox = iterator.next();
+            if (outbox.inFlight) {
+                continue;
+            }
+            if (outbox.queue.isEmpty()) {
+                // Корзину чата держим, пока она не наполнится, иначе новый объект обнулит лимит
+                if (outbox.bucket.isFull(now) && outbox.blockedUntil - now <= 0) {
+                    iterator.remove();
+                }
+                continue;
+            }
+            long chatWait = Math.max(outbox.blockedUntil - now, outbox.bucket.nanosUntilToken(now));
+            if (chatWait > 0) {
+                nextWake = Math.min(nextWake, now + chatWait);
+                continue;
+            }
+            long globalWait = globalBucket.nanosUntilToken(now);
+            if (globalWait > 0) {
+                nextWake = Math.min(nextWake, now + globalWait);
+                break;
+            }
+            globalBucket.take();
+            outbox.bucket.take();
+            outbox.inFlight = true;
+            ready.add(new Dispatch(outbox, outbox.queue.peekFirst()));
+        }
+        // Обслуженные чаты уходят в конец, чтобы общие токены в следующий раз первыми получили остальные
+        for (Dispatch dispatch : ready) {
+            outboxes.remove(dispatch.outbox().chatId);
+            outboxes.put(dispatch.outbox().chatId, dispatch.outbox());
+        }
+
+        scheduleWakeUp(now, nextWake);
+        return ready;
+    }
+
+    private void scheduleWakeUp(long now, long at) {
+        if (at == Long.MAX_VALUE) {
+            return;
+        }
+        if (wakeUp != null && !wakeUp.isDone() && wakeUpAt <= at) {
+            return;
+        }
+        if (wakeUp != null) {
+            wakeUp.cancel(false);
+        }
+        wakeUpAt = at;
+        wakeUp = dispatcher.schedule(this::wakeUpAndPump, Math.max(0, at - now), TimeUnit.NANOSECONDS);
+    }
+
+    private <T> void send(ChatOutbox outbox, OutboundCall<T> call) {
+        CompletableFuture<T> future;
+        try {
+            future = call.call.execute();
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((value, error) -> onCompleted(outbox, call, value, error));
+    }
+
+    private <T> void onCompleted(ChatOutbox outbox, OutboundCall<T> call, T value, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        synchronized (this) {
+            outbox.inFlight = false;
+            Integer retryAfter = retryAfter(cause);
+            if (retryAfter != null && call.attempts < config.getMaxRetries()) {
+                call.attempts++;
+                throttledCounter.increment();
+                outbox.blockedUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(retryAfter);
+                log.warn("Telegram throttled chat {}, retrying in {} s (attempt {})", outbox.chatId, retryAfter, call.attempts);
+            } else {
+                outbox.queue.pollFirst();
+                pending--;
+                if (cause == null) {
+                    call.result.complete(value);
+                } else {
+                    failedCounter.increment();
+                    call.result.completeExceptionally(cause);
+                }
+            }
+        }
+        dispatcher.execute(this::pump);
+    }
+
+    private static Integer retryAfter(Throwable error) {
+        if (error instanceof TelegramApiRequestException requestException
+                && requestException.getErrorCode() != null
+                && requestException.getErrorCode() == TOO_MANY_REQUESTS) {
+            Integer retryAfter = requestException.getParameters() != null ? requestException.getParameters().getRetryAfter() : null;
+            return retryAfter != null ? retryAfter : 1;
+        }
+        return null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+    }
+
+    private static final class ChatOutbox {
+        private final long chatId;
+        private final TokenBucket bucket;
+        private final Deque<OutboundCall<?>> queue = new ArrayDeque<>();
+        private boolean inFlight;
+        private long blockedUntil = System.nanoTime();
+
+        private ChatOutbox(long chatId, TokenBucket bucket) {
+            this.chatId = chatId;
+            this.bucket = bucket;
+        }
+    }
+
+    private record Dispatch(ChatOutbox outbox, OutboundCall<?> call) {
+    }
+
+    private static final class OutboundCall<T> {
+        private final TelegramCall<T> call;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private int attempts;
+
+        private OutboundCall(TelegramCall<T> call) {
+            this.call = call;
+        }
+    }
+}
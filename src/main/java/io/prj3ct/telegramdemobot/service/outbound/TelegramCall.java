@@ -0,0 +1,10 @@
+package io.prj3ct.telegramdemobot.service.outbound;
+
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.util.concurrent.CompletableFuture;
+
+@FunctionalInterface
+public interface TelegramCall<T> {
+    CompletableFuture<T> execute() throws TelegramApiException;
+}
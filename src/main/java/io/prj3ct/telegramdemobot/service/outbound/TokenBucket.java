@@ -0,0 +1,43 @@
+package io.prj3ct.telegramdemobot.service.outbound;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classic token bucket. Not thread-safe, callers synchronize on the owning queue.
+ */
+class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(double perSecond, double capacity) {
+        this.capacity = capacity;
+        this.tokensPerNano = perSecond / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    void take() {
+        tokens -= 1;
+    }
+
+    boolean isFull(long now) {
+        refill(now);
+        return tokens >= capacity;
+    }
+
+    long nanosUntilToken(long now) {
+        refill(now);
+        return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefill;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+            lastRefill = now;
+        }
+    }
+}
@@ -2,7 +2,6 @@ package io.prj3ct.telegramdemobot.service.parser;
 
 import io.prj3ct.telegramdemobot.dto.Cocktail;
 import io.prj3ct.telegramdemobot.dto.CocktailDetails;
-import io.prj3ct.telegramdemobot.service.ImageService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.json.JSONArray;
@@ -20,7 +19,6 @@ import java.util.stream.StreamSupport;
 @RequiredArgsConstructor
 public class CocktailApiDataParser {
 
-    private final ImageService imageService;
 
     public List<Cocktail> parseCocktailList(String jsonResponse, String ingredientForLog) {
         if (jsonResponse == null || jsonResponse.trim().isEmpty() || jsonResponse.trim().equals("{\"drinks\":null}")) {
@@ -62,8 +60,9 @@ public class CocktailApiDataParser {
         }
 
         JSONObject jsonObject = new JSONObject(jsonResponse);
-        JSONArray drinks = jsonObject.getJSONArray("drinks");
-        if (drinks.isEmpty()) {
+        // Для несуществующего ID API отвечает {"drinks":null}
+        JSONArray drinks = jsonObject.optJSONArray("drinks");
+        if (drinks == null || drinks.isEmpty()) {
             return null;
         }
 
@@ -74,22 +73,25 @@ public class CocktailApiDataParser {
 
         String imageUrl = drinkJson.optString("strDrinkThumb");
         if (imageUrl != null && !imageUrl.isEmpty()) {
-            details.setImage(imageService.downloadImage(imageUrl));
+            details.setImageUrl(imageUrl);
         }
 
         details.setInstructions(drinkJson.getString("strInstructions"));
 
         List<String> ingredientsList = new ArrayList<>();
+        List<String> sourceIngredients = new ArrayList<>();
         for (int i = 1; i <= 15; i++) {
             String ingredient = drinkJson.optString("strIngredient" + i);
             String measure = drinkJson.optString("strMeasure" + i);
             if (ingredient != null && !ingredient.trim().isEmpty() && !ingredient.equalsIgnoreCase("null")) {
+                sourceIngredients.add(ingredient.trim());
                 ingredientsList.add(ingredient + (measure != null && !measure.trim().isEmpty() && !measure.equalsIgnoreCase("null") ? " - " + measure : ""));
             } else {
                 break;
             }
         }
         details.setIngredients(ingredientsList);
+        details.setSourceIngredients(sourceIngredients);
 
         return details;
     }
@@ -0,0 +1,223 @@
+package io.prj3ct.telegramdemobot.service.update;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.prj3ct.telegramdemobot.config.UpdateProcessingConfig;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Runs updates off the receiving thread. Updates of one chat are processed strictly one after another,
+ * different chats are processed in parallel, and chats whose next update is a callback query are picked
+ * up by the workers before chats waiting with plain messages.
+ */
+@Slf4j
+@Component
+public class ChatUpdateExecutor {
+
+    private static final int CALLBACK_PRIORITY = 0;
+    private static final int MESSAGE_PRIORITY = 1;
+
+    private final int maxPendingPerChat;
+    private final ThreadPoolExecutor workers;
+    private final Map<Long, ChatLane> lanes = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger pendingUpdates = new AtomicInteger();
+    private final AtomicInteger pendingCallbacks = new AtomicInteger();
+    private final Counter droppedUpdates;
+
+    public ChatUpdateExecutor(UpdateProcessingConfig config, MeterRegistry meterRegistry) {
+        this.maxPendingPerChat = config.getMaxPendingPerChat();
+        int threads = Math.max(1, config.getWorkerThreads());
+        this.workers = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<>(), workerThreadFactory());
+        this.workers.allowCoreThreadTimeOut(true);
+
+        Gauge.builder("bot.updates.pending", pendingUpdates, AtomicInteger::get)
+                .description("Updates accepted but not processed yet")
+                .register(meterRegistry);
+        Gauge.builder("bot.updates.pending.callbacks", pendingCallbacks, AtomicInteger::get)
+                .description("Callback queries accepted but not processed yet")
+                .register(meterRegistry);
+        Gauge.builder("bot.updates.chats.active", lanes, Map::size)
+                .description("Chats with updates queued or in progress")
+                .register(meterRegistry);
+        Gauge.builder("bot.updates.workers.active", workers, ThreadPoolExecutor::getActiveCount)
+                .description("Workers currently processing an update")
+                .register(meterRegistry);
+        this.droppedUpdates = Counter.builder("bot.updates.dropped")
+                .description("Updates rejected because their chat queue was full")
+                .register(meterRegistry);
+    }
+
+    public void submit(Update update, Consumer<Update> handler) {
+        Long chatId = resolveChatId(update);
+        boolean callback = update.hasCallbackQuery();
+        PendingUpdate pending = new PendingUpdate(update, handler, callback);
+
+        if (chatId == null) {
+            // Апдейту без чата упорядочивать не с чем: у него своя одноразовая дорожка, не общая с другими такими же
+            ChatLane lane = new ChatLane(0L);
+            lane.queue.add(pending);
+            lane.scheduled = true;
+            pendingUpdates.incrementAndGet();
+            if (callback) {
+                pendingCallbacks.incrementAndGet();
+            }
+            schedule(lane, callback);
+            return;
+        }
+
+        boolean schedule;
+        ChatLane lane;
+        while (true) {
+            lane = lanes.computeIfAbsent(chatId, ChatLane::new);
+            synchronized (lane) {
+                if (lane.retired) {
+                    continue;
+                }
+                if (lane.queue.size() >= maxPendingPerChat) {
+                    droppedUpdates.increment();
+                    log.warn("Dropping update {} for chat {}: {} updates already pending", update.getUpdateId(), chatId, lane.queue.size());
+                    return;
+                }
+                lane.queue.add(pending);
+                schedule = !lane.scheduled;
+                lane.scheduled = true;
+            }
+            break;
+        }
+
+        pendingUpdates.incrementAndGet();
+        if (callback) {
+            pendingCallbacks.incrementAndGet();
+        }
+        if (schedule) {
+            schedule(lane, pending.callback);
+        }
+    }
+
+    private void schedule(ChatLane lane, boolean callback) {
+        int priority = callback ? CALLBACK_PRIORITY : MESSAGE_PRIORITY;
+        workers.execute(new LaneTask(lane, priority, sequence.incrementAndGet()));
+    }
+
+    private void runNext(ChatLane lane) {
+        PendingUpdate next;
+        synchronized (lane) {
+            next = lane.queue.poll();
+        }
+        if (next != null) {
+            pendingUpdates.decrementAndGet();
+            if (next.callback) {
+                pendingCallbacks.decrementAndGet();
+            }
+            try {
+                next.handler.accept(next.update);
+            } catch (Exception e) {
+                log.error("Failed to process update {} for chat {}", next.update.getUpdateId(), lane.chatId, e);
+            }
+        }
+
+        PendingUpdate head;
+        synchronized (lane) {
+            head = lane.queue.peek();
+            if (head == null) {
+                lane.scheduled = false;
+                lane.retired = true;
+                lanes.remove(lane.chatId, lane);
+                return;
+            }
+        }
+        // Re-queue the lane instead of draining it here, so a chat with a long backlog yields to other chats
+        schedule(lane, head.callback);
+    }
+
+    private static Long resolveChatId(Update update) {
+        if (update.hasMessage()) {
+            return update.getMessage().getChatId();
+        }
+        if (update.hasCallbackQuery() && update.getCallbackQuery().getMessage() != null) {
+            return update.getCallbackQuery().getMessage().getChatId();
+        }
+        if (update.hasEditedMessage()) {
+            return update.getEditedMessage().getChatId();
+        }
+        return null;
+    }
+
+    private static ThreadFactory workerThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "update-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Update workers did not finish in time, {} updates left unprocessed", pendingUpdates.get());
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class ChatLane {
+        private final long chatId;
+        private final Queue<PendingUpdate> queue = new ArrayDeque<>();
+        private boolean scheduled;
+        private boolean retired;
+
+        private ChatLane(long chatId) {
+            this.chatId = chatId;
+        }
+    }
+
+    private record PendingUpdate(Update update, Consumer<Update> handler, boolean callback) {
+    }
+
+    private final class LaneTask implements Runnable, Comparable<LaneTask> {
+        private final ChatLane lane;
+        private final int priority;
+        private final long order;
+
+        private LaneTask(ChatLane lane, int priority, long order) {
+            this.lane = lane;
+            this.priority = priority;
+            this.order = order;
+        }
+
+        @Override
+        public void run() {
+            runNext(lane);
+        }
+
+        @Override
+        public int compareTo(LaneTask other) {
+            int byPriority = Integer.compare(priority, other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(order, other.order);
+        }
+    }
+}